@@ -0,0 +1,303 @@
+package at.hochschule.burgenland.bswe.algo;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+public class BoardRenderer {
+
+    private static final String ESCAPE = "\u001B[";
+    private static final String RED = ESCAPE + "31m";
+    private static final String RESET = ESCAPE + "0m";
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final StringBuilder buffer = new StringBuilder();
+    private byte[] bytes = new byte[0];
+    private boolean showCandidates;
+    private boolean highlightConflicts;
+    private boolean ansi;
+    private int[] counts = new int[0];
+    private boolean[] conflicts = new boolean[0];
+    private int[] drawn;
+    private boolean[] drawnConflicts;
+
+    public boolean isShowCandidates() {
+        return showCandidates;
+    }
+
+    /**
+     * Sets whether the candidates of every empty cell, i.e. the values not yet used in its row,
+     * column or subgrid, are listed below the board.
+     */
+    public void setShowCandidates(boolean showCandidates) {
+        this.showCandidates = showCandidates;
+    }
+
+    public boolean isHighlightConflicts() {
+        return highlightConflicts;
+    }
+
+    /**
+     * Sets whether cells whose value appears more than once in their row, column or subgrid, or
+     * lies outside of 1 to n, are highlighted. Without ANSI mode such a cell is followed by a '*'
+     * instead of a space, with ANSI mode its value is shown in red.
+     */
+    public void setHighlightConflicts(boolean highlightConflicts) {
+        this.highlightConflicts = highlightConflicts;
+    }
+
+    public boolean isAnsi() {
+        return ansi;
+    }
+
+    /**
+     * Sets whether ANSI escape sequences are used. In ANSI mode, {@link #update(int[][], PrintStream)}
+     * redraws only the cells that changed since the previous frame.
+     */
+    public void setAnsi(boolean ansi) {
+        this.ansi = ansi;
+        this.drawn = null;
+    }
+
+    /**
+     * Renders the given Sudoku board into a string. Sub-grids are separated by horizontal and
+     * vertical lines, empty cells are represented by a dot ('.'), and all cells are padded to the
+     * width of the largest value.
+     *
+     * @param sudoku a 2D integer array representing the Sudoku board, where 0 represents an empty
+     *               cell. The array must be square, and its size must be a perfect square.
+     * @return the rendered board, one line per row and separator line.
+     * @throws IllegalArgumentException if the board is null or empty.
+     */
+    public String render(int[][] sudoku) {
+        buffer.setLength(0);
+        appendBoard(sudoku);
+        return buffer.toString();
+    }
+
+    /**
+     * Prints the given Sudoku board to the given stream. The whole board is built up in a buffer
+     * that is reused between calls and written to the stream with a single call.
+     *
+     * @param sudoku a 2D integer array representing the Sudoku board, where 0 represents an empty
+     *               cell. The array must be square, and its size must be a perfect square.
+     * @param out    the stream to print the board to.
+     * @throws IllegalArgumentException if the board is null or empty.
+     */
+    public void print(int[][] sudoku, PrintStream out) {
+        buffer.setLength(0);
+        appendBoard(sudoku);
+        write(out);
+    }
+
+    /**
+     * Prints the next frame of a board that changes over time, e.g. while it is being solved.
+     * In ANSI mode, the first frame clears the screen and draws the whole board at its top. Every
+     * further frame moves the cursor to the cells whose value or conflict state changed and
+     * redraws only those, then moves the cursor below the board again; the candidate list is
+     * redrawn if it is shown. Without ANSI mode, or if the size of the board changed, the whole
+     * board is printed.
+     *
+     * @param sudoku a 2D integer array representing the Sudoku board, where 0 represents an empty
+     *               cell. The array must be square, and its size must be a perfect square.
+     * @param out    the stream to print the frame to.
+     * @throws IllegalArgumentException if the board is null or empty.
+     */
+    public void update(int[][] sudoku, PrintStream out) {
+        buffer.setLength(0);
+        if (!ansi || drawn == null || sudoku == null || drawn.length != sudoku.length * sudoku.length) {
+            if (ansi) {
+                buffer.append(ESCAPE).append('H').append(ESCAPE).append("2J");
+            }
+            appendBoard(sudoku);
+            if (ansi) {
+                int cells = sudoku.length * sudoku.length;
+                drawn = new int[cells];
+                drawnConflicts = new boolean[cells];
+                remember(sudoku);
+            }
+            write(out);
+            return;
+        }
+
+        int size = sudoku.length;
+        int subSize = (int) Math.sqrt(size);
+        int cellWidth = String.valueOf(size).length();
+        boolean counted = countValues(sudoku);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                int value = sudoku[row][col];
+                boolean conflict = counted && highlightConflicts && conflicts[cell];
+                if (value != drawn[cell] || conflict != drawnConflicts[cell]) {
+                    buffer.append(ESCAPE).append(row + row / subSize + 1).append(';')
+                            .append(col * (cellWidth + 1) + 2 * (col / subSize) + 1).append('H');
+                    appendCell(value, cellWidth, conflict);
+                }
+            }
+        }
+        buffer.append(ESCAPE).append(size + subSize).append(";1H");
+        if (showCandidates) {
+            buffer.append(ESCAPE).append('J');
+            appendCandidates(sudoku);
+        }
+        remember(sudoku);
+        write(out);
+    }
+
+    /**
+     * Forgets the previous frame, so the next call to {@link #update(int[][], PrintStream)} draws
+     * the whole board again.
+     */
+    public void reset() {
+        drawn = null;
+    }
+
+    private void appendBoard(int[][] sudoku) {
+        if (sudoku == null || sudoku.length == 0) {
+            throw new IllegalArgumentException("Sudoku must NOT be null or empty!");
+        }
+
+        int size = sudoku.length;
+        int subSize = (int) Math.sqrt(size);
+        int cellWidth = String.valueOf(size).length();
+        boolean counted = countValues(sudoku);
+
+        for (int row = 0; row < size; row++) {
+            if (row % subSize == 0 && row != 0) {
+                for (int i = size * (cellWidth + 1) + 2 * subSize; i > 0; i--) {
+                    buffer.append('-');
+                }
+                buffer.append(NEW_LINE);
+            }
+            for (int col = 0; col < size; col++) {
+                if (col % subSize == 0 && col != 0) {
+                    buffer.append("| ");
+                }
+                appendCell(sudoku[row][col], cellWidth, counted && highlightConflicts && conflicts[row * size + col]);
+            }
+            buffer.append(NEW_LINE);
+        }
+        if (showCandidates) {
+            appendCandidates(sudoku);
+        }
+    }
+
+    private void appendCell(int value, int cellWidth, boolean conflict) {
+        for (int i = value == 0 ? 1 : length(value); i < cellWidth; i++) {
+            buffer.append(' ');
+        }
+        if (conflict && ansi) {
+            buffer.append(RED);
+        }
+        if (value == 0) {
+            buffer.append('.');
+        } else {
+            buffer.append(value);
+        }
+        if (conflict && ansi) {
+            buffer.append(RESET);
+        }
+        buffer.append(conflict && !ansi ? '*' : ' ');
+    }
+
+    private void appendCandidates(int[][] sudoku) {
+        int size = sudoku.length;
+        int subSize = (int) Math.sqrt(size);
+        int stride = size + 1;
+        buffer.append("Candidates:").append(NEW_LINE);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (sudoku[row][col] != 0) {
+                    continue;
+                }
+                int box = (row / subSize) * subSize + col / subSize;
+                buffer.append("row ").append(row + 1).append(", column ").append(col + 1).append(':');
+                for (int value = 1; value <= size; value++) {
+                    if (counts[row * stride + value] == 0
+                            && counts[(size + col) * stride + value] == 0
+                            && counts[(2 * size + box) * stride + value] == 0) {
+                        buffer.append(' ').append(value);
+                    }
+                }
+                buffer.append(NEW_LINE);
+            }
+        }
+    }
+
+    /**
+     * Counts how often every value appears in every row, column and subgrid, and marks the cells
+     * whose value appears more than once in one of them or lies outside of 1 to n. The counts are
+     * only needed for conflicts and candidates, so nothing is counted if both are turned off.
+     *
+     * @return true if the values were counted, false otherwise.
+     */
+    private boolean countValues(int[][] sudoku) {
+        if (!highlightConflicts && !showCandidates) {
+            return false;
+        }
+        int size = sudoku.length;
+        int subSize = (int) Math.sqrt(size);
+        int stride = size + 1;
+        if (counts.length != 3 * size * stride) {
+            counts = new int[3 * size * stride];
+            conflicts = new boolean[size * size];
+        } else {
+            Arrays.fill(counts, 0);
+        }
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = sudoku[row][col];
+                if (value > 0 && value <= size) {
+                    int box = (row / subSize) * subSize + col / subSize;
+                    counts[row * stride + value]++;
+                    counts[(size + col) * stride + value]++;
+                    counts[(2 * size + box) * stride + value]++;
+                }
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = sudoku[row][col];
+                int box = (row / subSize) * subSize + col / subSize;
+                conflicts[row * size + col] = value != 0 && (value < 0 || value > size
+                        || counts[row * stride + value] > 1
+                        || counts[(size + col) * stride + value] > 1
+                        || counts[(2 * size + box) * stride + value] > 1);
+            }
+        }
+        return true;
+    }
+
+    private void remember(int[][] sudoku) {
+        int size = sudoku.length;
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(sudoku[row], 0, drawn, row * size, size);
+        }
+        if (highlightConflicts && conflicts.length == drawnConflicts.length) {
+            System.arraycopy(conflicts, 0, drawnConflicts, 0, conflicts.length);
+        } else {
+            Arrays.fill(drawnConflicts, false);
+        }
+    }
+
+    private static int length(int value) {
+        int length = value < 0 ? 2 : 1;
+        for (long rest = Math.abs((long) value); rest >= 10; rest /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    private void write(PrintStream out) {
+        int length = buffer.length();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, 2 * bytes.length)];
+        }
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) buffer.charAt(i);
+        }
+        out.write(bytes, 0, length);
+        out.flush();
+    }
+}
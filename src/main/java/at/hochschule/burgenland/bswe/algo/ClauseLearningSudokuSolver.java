@@ -0,0 +1,1059 @@
+package at.hochschule.burgenland.bswe.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class ClauseLearningSudokuSolver {
+
+    /**
+     * Number of contradictions after which the search gives up. Boards of 36x36 and larger with
+     * about 40% to 70% of their cells empty can need far more than this, and the search would
+     * otherwise run for hours; this budget ends it after well under a minute.
+     */
+    public static final long MAX_CONFLICTS = 50_000L;
+
+    private static final Map<Integer, Geometry> GEOMETRIES = new ConcurrentHashMap<>();
+    private static final byte UNASSIGNED = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final int GIVEN = -1;
+    private static final int DECISION = -2;
+    private static final int NO_CONFLICT = Integer.MIN_VALUE;
+    private static final int RESTART_BASE = 100;
+    private static final long CHECK_MASK = 255;
+    private static final int MIN_LEARNED = 2000;
+    private static final double ACTIVITY_DECAY = 0.95;
+    private static final long PROGRESS_NANOS = 500_000_000L;
+
+    private final Geometry geometry;
+    private final int size;
+    private final int cells;
+    private final int groups;
+    private final byte[] assignment;
+    private final int[] levels;
+    private final int[] reasons;
+    private final int[] trail;
+    private final int[] levelStarts;
+    private final int[] free;
+    private final double[] activities;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final boolean[] seen;
+    private final int[] levelStamps;
+    private final List<int[]> clauses = new ArrayList<>();
+    private final List<Integer> learned = new ArrayList<>();
+    private final int[][] watches;
+    private final int[] watchSizes;
+    private int[] lbds = new int[64];
+    private int[] buffer;
+    private final int[] stack;
+    private final int[] clear;
+    private int clearSize;
+    private int trailSize;
+    private int queueHead;
+    private int level;
+    private int heapSize;
+    private int stamp;
+    private int conflictVar;
+    private int maxLearned = MIN_LEARNED;
+    private Consumer<int[][]> progress;
+    private int[][] board;
+    private long reportAt;
+    private double activityIncrement = 1;
+
+    /**
+     * Creates the search state for one puzzle. Every pair of a cell and a digit is a variable
+     * that is true if the digit goes into the cell and false if it is ruled out. The rules of
+     * Sudoku are not stored as clauses but applied directly: a variable set to true sets every
+     * other digit of its cell and the same digit in every peer to false, and once all but one
+     * variable of a group is false, the last one is set to true. The groups are the digits of a
+     * cell and the places of a digit in a row, column or subgrid; {@code free} counts the
+     * variables of each group that are not false yet.
+     */
+    private ClauseLearningSudokuSolver(Geometry geometry) {
+        this.geometry = geometry;
+        this.size = geometry.size;
+        this.cells = geometry.cells;
+        this.groups = cells + 3 * size * size;
+        int variables = cells * size;
+
+        this.assignment = new byte[variables];
+        this.levels = new int[variables];
+        this.reasons = new int[variables];
+        this.trail = new int[variables];
+        this.levelStarts = new int[cells + 2];
+        this.free = new int[groups];
+        Arrays.fill(free, size);
+        this.activities = new double[variables];
+        this.heap = new int[variables];
+        this.heapIndex = new int[variables];
+        for (int variable = 0; variable < variables; variable++) {
+            heap[variable] = variable;
+            heapIndex[variable] = variable;
+        }
+        this.heapSize = variables;
+        this.seen = new boolean[variables];
+        this.levelStamps = new int[cells + 2];
+        this.watches = new int[2 * variables][];
+        this.watchSizes = new int[2 * variables];
+        this.buffer = new int[size + 1];
+        this.stack = new int[variables];
+        this.clear = new int[variables];
+    }
+
+    /**
+     * Solves a Sudoku puzzle as a satisfiability problem over one variable per cell and digit.
+     * Placements are propagated to all peers, and a cell with one candidate left or a digit with
+     * one place left in a row, column or subgrid is filled in right away, using counters that are
+     * updated with every elimination instead of scanning the grid. A digit whose places left in a
+     * subgrid all lie in one row or column is also removed from the rest of that row or column,
+     * and the other way round.
+     * When a guess leads to a contradiction, the solver works out which earlier placements and
+     * eliminations caused it and keeps that combination as a learned clause, so the same
+     * contradiction is never searched again anywhere in the grid, and it jumps back to the guess
+     * that is really to blame instead of the last one. Guesses are taken on the variables involved
+     * in the most recent contradictions, and the search restarts from the givens after a number of
+     * contradictions that follows the Luby sequence, keeping everything learned so far.
+     * The search keeps its own trail instead of recursing, so its depth does not depend on the
+     * size of the thread's stack.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku puzzle to be solved. Empty cells
+     *               are represented by 0. The size of the grid must be n x n, where n is a perfect
+     *               square.
+     * @return the solved Sudoku grid (the input array, filled in) if a solution exists, or null if
+     *         the givens contradict each other or the puzzle cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions.
+     * @throws IllegalStateException    if the search gives up after {@link #MAX_CONFLICTS}
+     *                                  contradictions or the thread was interrupted.
+     */
+    public static int[][] solve(int[][] sudoku) {
+        return solve(sudoku, null);
+    }
+
+    /**
+     * Solves a Sudoku puzzle like {@link #solve(int[][])} and records every placement of the
+     * solution into the given trace, in an order in which each placement is either a guess or
+     * follows from the givens and the placements before it. Givens are not recorded.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku puzzle to be solved. Empty cells
+     *               are represented by 0. The size of the grid must be n x n, where n is a perfect
+     *               square.
+     * @param trace  the trace to append the placements to, or null to solve without tracing.
+     * @return the solved Sudoku grid (the input array, filled in) if a solution exists, or null if
+     *         the givens contradict each other or the puzzle cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions, or if the trace was
+     *                                  created for a different grid size.
+     * @throws IllegalStateException    if the search gives up after {@link #MAX_CONFLICTS}
+     *                                  contradictions or the thread was interrupted.
+     */
+    public static int[][] solve(int[][] sudoku, SolveTrace trace) {
+        return solve(sudoku, trace, null);
+    }
+
+    /**
+     * Solves a Sudoku puzzle like {@link #solve(int[][], SolveTrace)} and shows the progress of
+     * the search to the given listener. Every half second, the listener receives the placements
+     * the search has made so far, so it can draw the board while it is being solved. The board
+     * passed to the listener is reused for the next call and must not be kept or changed.
+     *
+     * @param sudoku   the 2D integer array representing the Sudoku puzzle to be solved. Empty
+     *                 cells are represented by 0. The size of the grid must be n x n, where n is a
+     *                 perfect square.
+     * @param trace    the trace to append the placements to, or null to solve without tracing.
+     * @param progress the listener to show the progress to, or null to solve without it.
+     * @return the solved Sudoku grid (the input array, filled in) if a solution exists, or null if
+     *         the givens contradict each other or the puzzle cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions, or if the trace was
+     *                                  created for a different grid size.
+     * @throws IllegalStateException    if the search gives up after {@link #MAX_CONFLICTS}
+     *                                  contradictions or the thread was interrupted.
+     */
+    public static int[][] solve(int[][] sudoku, SolveTrace trace, Consumer<int[][]> progress) {
+        Geometry geometry = geometryFor(sudoku);
+        if (trace != null && trace.getSize() != geometry.size) {
+            throw new IllegalArgumentException("Trace does not match the Sudoku size!");
+        }
+        int size = geometry.size;
+        for (int[] row : sudoku) {
+            for (int value : row) {
+                if (value < 0 || value > size) {
+                    return null;
+                }
+            }
+        }
+
+        ClauseLearningSudokuSolver solver = new ClauseLearningSudokuSolver(geometry);
+        if (progress != null) {
+            solver.progress = progress;
+            solver.board = new int[size][size];
+        }
+        if (!solver.search(sudoku)) {
+            return null;
+        }
+
+        for (int i = 0; i < solver.trailSize; i++) {
+            int variable = solver.trail[i];
+            if (solver.assignment[variable] == TRUE) {
+                int cell = variable / size;
+                int value = variable % size + 1;
+                sudoku[cell / size][cell % size] = value;
+                if (trace != null && solver.reasons[variable] != GIVEN) {
+                    trace.record(cell, value, solver.traceReason(variable));
+                }
+            }
+        }
+        return sudoku;
+    }
+
+    /**
+     * Solves a Sudoku puzzle like {@link #solve(int[][], SolveTrace)} with a new trace for the
+     * size of the grid.
+     *
+     * @return the solved Sudoku grid and its trace if a solution exists, or null if the puzzle
+     *         cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, not a square
+     *                                  grid with valid dimensions, or larger than
+     *                                  {@link SolveTrace#MAX_SIZE}.
+     * @throws IllegalStateException    if the search gives up after {@link #MAX_CONFLICTS}
+     *                                  contradictions or the thread was interrupted.
+     */
+    static TracedSolution solveWithTrace(int[][] sudoku) {
+        SolveTrace trace = new SolveTrace(geometryFor(sudoku).size);
+        int[][] solution = solve(sudoku, trace);
+        if (solution == null) {
+            return null;
+        }
+        return new TracedSolution(solution, trace);
+    }
+
+    /**
+     * Determines whether a given Sudoku grid is completely solved and valid. Each row, column and
+     * subgrid keeps a bitset of the digits seen so far, so the check runs in a single pass over
+     * the grid regardless of its size.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku grid to check. The grid must be
+     *               n x n, where n is a perfect square.
+     * @return true if the grid is filled and every digit appears exactly once in each row, column
+     *         and subgrid, false otherwise.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions.
+     */
+    public static boolean isSolved(int[][] sudoku) {
+        Geometry geometry = geometryFor(sudoku);
+        int size = geometry.size;
+        int words = (size + 63) >>> 6;
+        long[] rows = new long[size * words];
+        long[] cols = new long[size * words];
+        long[] boxes = new long[size * words];
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = sudoku[row][col];
+                if (value <= 0 || value > size) {
+                    return false;
+                }
+                int word = (value - 1) >>> 6;
+                long bit = 1L << (value - 1);
+                int box = geometry.boxOf[row * size + col];
+                if ((rows[row * words + word] & bit) != 0
+                        || (cols[col * words + word] & bit) != 0
+                        || (boxes[box * words + word] & bit) != 0) {
+                    System.out.println("Invalid number " + value + " in cell " + row + "," + col + "");
+                    return false;
+                }
+                rows[row * words + word] |= bit;
+                cols[col * words + word] |= bit;
+                boxes[box * words + word] |= bit;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places the givens and searches for a solution.
+     *
+     * @return true if every variable was assigned without a contradiction, false if the puzzle
+     *         has no solution.
+     * @throws IllegalStateException if the search gives up after {@link #MAX_CONFLICTS}
+     *                               contradictions or the thread was interrupted.
+     */
+    private boolean search(int[][] sudoku) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (sudoku[row][col] != 0) {
+                    assign((row * size + col) * size + sudoku[row][col] - 1, TRUE, GIVEN);
+                }
+            }
+        }
+
+        long conflicts = 0;
+        long decisions = 0;
+        long restartAt = RESTART_BASE;
+        int run = 1;
+        reportAt = System.nanoTime() + PROGRESS_NANOS;
+        while (true) {
+            int conflict = propagate();
+            if (conflict != NO_CONFLICT) {
+                if (level == 0) {
+                    return false;
+                }
+                learn(conflict);
+                if (++conflicts >= MAX_CONFLICTS) {
+                    throw new IllegalStateException("Sudoku could not be solved within " + MAX_CONFLICTS + " conflicts!");
+                }
+                if ((conflicts & CHECK_MASK) == 0) {
+                    checkInterrupted();
+                }
+                if (conflicts >= restartAt) {
+                    restartAt = conflicts + RESTART_BASE * luby(++run);
+                    backtrack(0);
+                }
+                continue;
+            }
+            if (learned.size() >= maxLearned) {
+                reduceLearned();
+            }
+            if ((++decisions & CHECK_MASK) == 0) {
+                checkInterrupted();
+                if (progress != null && System.nanoTime() - reportAt >= 0) {
+                    report();
+                }
+            }
+            int variable = nextDecision();
+            if (variable < 0) {
+                return true;
+            }
+            levelStarts[++level] = trailSize;
+            assign(variable, TRUE, DECISION);
+        }
+    }
+
+    /**
+     * Stops the search if the thread was interrupted, e.g. because a pipeline is being shut down.
+     * The interrupt flag is kept, so the caller still sees it.
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Solving the Sudoku was interrupted!");
+        }
+    }
+
+    /**
+     * Fills the progress board with the values placed so far and hands it to the listener.
+     */
+    private void report() {
+        for (int[] row : board) {
+            Arrays.fill(row, 0);
+        }
+        for (int i = 0; i < trailSize; i++) {
+            int variable = trail[i];
+            if (assignment[variable] == TRUE) {
+                int cell = variable / size;
+                board[cell / size][cell % size] = variable % size + 1;
+            }
+        }
+        progress.accept(board);
+        reportAt = System.nanoTime() + PROGRESS_NANOS;
+    }
+
+    /**
+     * Applies the consequences of every assignment on the trail that was not propagated yet.
+     *
+     * @return {@code NO_CONFLICT}, or the reason code of the constraint that cannot be satisfied
+     *         any more. If two variables of a cell or a unit are both true, the second one is kept
+     *         in {@code conflictVar}.
+     */
+    private int propagate() {
+        while (queueHead < trailSize) {
+            int variable = trail[queueHead++];
+            int cell = variable / size;
+            int digit = variable % size;
+            int conflict;
+            if (assignment[variable] == TRUE) {
+                int reason = binaryReason(variable);
+                int base = cell * size;
+                for (int other = 0; other < size; other++) {
+                    if (other != digit && !falsify(base + other, reason)) {
+                        return reason;
+                    }
+                }
+                for (int peer : geometry.peers[cell]) {
+                    if (!falsify(peer * size + digit, reason)) {
+                        return reason;
+                    }
+                }
+                conflict = propagateWatches(2 * variable + 1);
+            } else {
+                int[] units = geometry.unitsOf[cell];
+                free[cell]--;
+                for (int unit : units) {
+                    free[cells + unit * size + digit]--;
+                }
+                conflict = checkGroup(cell);
+                for (int i = 0; i < units.length && conflict == NO_CONFLICT; i++) {
+                    conflict = checkGroup(cells + units[i] * size + digit);
+                }
+                if (conflict == NO_CONFLICT) {
+                    conflict = propagateWatches(2 * variable);
+                }
+            }
+            if (conflict != NO_CONFLICT) {
+                return conflict;
+            }
+        }
+        return NO_CONFLICT;
+    }
+
+    private boolean falsify(int variable, int reason) {
+        if (assignment[variable] == TRUE) {
+            conflictVar = variable;
+            return false;
+        }
+        if (assignment[variable] == UNASSIGNED) {
+            assign(variable, FALSE, reason);
+        }
+        return true;
+    }
+
+    /**
+     * Checks a group after one of its variables turned false. If no variable is left, the group
+     * cannot be satisfied; if one is left, it is set to true. A variable that is already false but
+     * not propagated yet still counts as left, so the conflict is found once it is propagated.
+     */
+    private int checkGroup(int group) {
+        int left = free[group];
+        if (left == 0) {
+            conflictVar = -1;
+            return group;
+        }
+        if (left == 1) {
+            int count = groupVariables(group, -1);
+            for (int i = 0; i < count; i++) {
+                int variable = buffer[i];
+                if (assignment[variable] != FALSE) {
+                    if (assignment[variable] == UNASSIGNED) {
+                        assign(variable, TRUE, group);
+                    }
+                    break;
+                }
+            }
+        } else if (group >= cells && left <= geometry.subSize) {
+            return eliminateLocked((group - cells) / size, (group - cells) % size);
+        }
+        return NO_CONFLICT;
+    }
+
+    /**
+     * Checks whether the places left for a digit in a unit all lie where the unit crosses one
+     * other unit, i.e. in one segment of a row or column within a subgrid. If so, the digit has to
+     * go into that segment, so it is removed from the rest of the other unit.
+     */
+    private int eliminateLocked(int unit, int digit) {
+        int row = -1;
+        int col = -1;
+        int box = -1;
+        for (int cell : geometry.units[unit]) {
+            if (assignment[cell * size + digit] != FALSE) {
+                int cellRow = cell / size;
+                int cellCol = cell % size;
+                int cellBox = geometry.boxOf[cell];
+                row = row == -1 || row == cellRow ? cellRow : -2;
+                col = col == -1 || col == cellCol ? cellCol : -2;
+                box = box == -1 || box == cellBox ? cellBox : -2;
+            }
+        }
+        int other;
+        if (unit >= 2 * size) {
+            other = row >= 0 ? row : col >= 0 ? size + col : -1;
+        } else {
+            other = box >= 0 ? 2 * size + box : -1;
+        }
+        if (other < 0) {
+            return NO_CONFLICT;
+        }
+        int reason = lockedReason(unit, other, digit);
+        for (int cell : geometry.units[other]) {
+            if (!inUnit(cell, unit) && !falsify(cell * size + digit, reason)) {
+                return reason;
+            }
+        }
+        return NO_CONFLICT;
+    }
+
+    private int lockedReason(int unit, int other, int digit) {
+        return -3 - cells * size - ((unit * 3 * size + other) * size + digit);
+    }
+
+    private boolean inUnit(int cell, int unit) {
+        int[] units = geometry.unitsOf[cell];
+        return units[0] == unit || units[1] == unit || units[2] == unit;
+    }
+
+    /**
+     * Visits the learned clauses watching the given literal, which just turned false. Each clause
+     * watches two of its literals that are not false; a clause that finds no other literal to
+     * watch either sets its last literal or cannot be satisfied any more.
+     */
+    private int propagateWatches(int literal) {
+        int[] list = watches[literal];
+        int count = watchSizes[literal];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int ref = list[i];
+            int[] clause = clauses.get(ref);
+            if (clause == null) {
+                continue;
+            }
+            if (clause[0] == literal) {
+                clause[0] = clause[1];
+                clause[1] = literal;
+            }
+            if (isTrue(clause[0])) {
+                list[kept++] = ref;
+                continue;
+            }
+            boolean moved = false;
+            for (int k = 2; k < clause.length && !moved; k++) {
+                if (!isFalse(clause[k])) {
+                    clause[1] = clause[k];
+                    clause[k] = literal;
+                    watch(clause[1], ref);
+                    moved = true;
+                }
+            }
+            if (moved) {
+                continue;
+            }
+            list[kept++] = ref;
+            if (isFalse(clause[0])) {
+                while (++i < count) {
+                    list[kept++] = list[i];
+                }
+                watchSizes[literal] = kept;
+                conflictVar = -1;
+                return groups + ref;
+            }
+            assign(clause[0] >>> 1, valueOf(clause[0]), groups + ref);
+        }
+        watchSizes[literal] = kept;
+        return NO_CONFLICT;
+    }
+
+    /**
+     * Analyses a conflict, adds the learned clause and jumps back to the level at which the clause
+     * sets its first literal. Starting from the variables of the conflicting constraint, variables
+     * assigned at the current level are replaced by the variables they were assigned for, until
+     * only one of them is left; that variable and the variables of earlier levels form the clause.
+     */
+    private void learn(int conflict) {
+        List<Integer> lower = new ArrayList<>();
+        int pending = 0;
+        int index = trailSize - 1;
+        int reason = conflict;
+        int exclude = -1;
+        int extra = conflictVar;
+        int variable;
+        while (true) {
+            int count = reasonVariables(reason, exclude);
+            if (extra >= 0) {
+                buffer[count++] = extra;
+                extra = -1;
+            }
+            for (int i = 0; i < count; i++) {
+                int other = buffer[i];
+                if (!seen[other] && levels[other] > 0) {
+                    seen[other] = true;
+                    bump(other);
+                    if (levels[other] == level) {
+                        pending++;
+                    } else {
+                        lower.add(other);
+                    }
+                }
+            }
+            while (!seen[trail[index]]) {
+                index--;
+            }
+            variable = trail[index--];
+            seen[variable] = false;
+            if (--pending == 0) {
+                break;
+            }
+            reason = reasons[variable];
+            exclude = variable;
+        }
+
+        int levelMask = 0;
+        for (int other : lower) {
+            levelMask |= 1 << (levels[other] & 31);
+        }
+        List<Integer> kept = new ArrayList<>();
+        for (int other : lower) {
+            if (reasons[other] == DECISION || !isImplied(other, levelMask)) {
+                kept.add(other);
+            }
+        }
+        for (int other : lower) {
+            seen[other] = false;
+        }
+        for (int i = 0; i < clearSize; i++) {
+            seen[clear[i]] = false;
+        }
+        clearSize = 0;
+
+        int[] clause = new int[kept.size() + 1];
+        clause[0] = falseLiteral(variable);
+        int backtrackLevel = 0;
+        int distinctLevels = 1;
+        stamp++;
+        for (int i = 0; i < kept.size(); i++) {
+            int other = kept.get(i);
+            clause[i + 1] = falseLiteral(other);
+            if (levels[other] > backtrackLevel) {
+                backtrackLevel = levels[other];
+                clause[i + 1] = clause[1];
+                clause[1] = falseLiteral(other);
+            }
+            if (levelStamps[levels[other]] != stamp) {
+                levelStamps[levels[other]] = stamp;
+                distinctLevels++;
+            }
+        }
+        activityIncrement /= ACTIVITY_DECAY;
+
+        backtrack(backtrackLevel);
+        int ref = clauses.size();
+        clauses.add(clause);
+        if (clause.length > 1) {
+            watch(clause[0], ref);
+            watch(clause[1], ref);
+            learned.add(ref);
+            if (ref >= lbds.length) {
+                lbds = Arrays.copyOf(lbds, 2 * ref);
+            }
+            lbds[ref] = distinctLevels;
+        }
+        assign(variable, valueOf(clause[0]), groups + ref);
+    }
+
+    /**
+     * Checks whether a variable of a learned clause can be left out because it follows from the
+     * other variables of the clause: every variable it was assigned for is in the clause, at level
+     * 0 or, recursively, follows from the clause as well. Variables found to follow are marked as
+     * seen, so they are not checked twice.
+     */
+    private boolean isImplied(int variable, int levelMask) {
+        int top = clearSize;
+        int stackSize = 0;
+        stack[stackSize++] = variable;
+        while (stackSize > 0) {
+            int current = stack[--stackSize];
+            int count = reasonVariables(reasons[current], current);
+            for (int i = 0; i < count; i++) {
+                int other = buffer[i];
+                if (seen[other] || levels[other] == 0) {
+                    continue;
+                }
+                if (reasons[other] == DECISION || (levelMask & 1 << (levels[other] & 31)) == 0) {
+                    for (int j = top; j < clearSize; j++) {
+                        seen[clear[j]] = false;
+                    }
+                    clearSize = top;
+                    return false;
+                }
+                seen[other] = true;
+                stack[stackSize++] = other;
+                clear[clearSize++] = other;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes half of the learned clauses that tie the most decision levels together, as they
+     * are the least likely to be used again. Clauses tying at most two levels together and
+     * clauses that are the reason for a current assignment are kept.
+     */
+    private void reduceLearned() {
+        List<Integer> candidates = new ArrayList<>();
+        List<Integer> kept = new ArrayList<>();
+        for (int ref : learned) {
+            int first = clauses.get(ref)[0] >>> 1;
+            boolean locked = assignment[first] != UNASSIGNED && reasons[first] == groups + ref;
+            if (locked || lbds[ref] <= 2) {
+                kept.add(ref);
+            } else {
+                candidates.add(ref);
+            }
+        }
+        candidates.sort((a, b) -> lbds[a] != lbds[b] ? Integer.compare(lbds[b], lbds[a]) : Integer.compare(a, b));
+        int remove = candidates.size() / 2;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i < remove) {
+                clauses.set(candidates.get(i), null);
+            } else {
+                kept.add(candidates.get(i));
+            }
+        }
+        learned.clear();
+        learned.addAll(kept);
+        maxLearned += maxLearned / 10;
+    }
+
+    /**
+     * Collects the variables of the constraint with the given reason code into {@code buffer},
+     * leaving out the given variable.
+     *
+     * @return the number of variables collected.
+     */
+    private int reasonVariables(int reason, int exclude) {
+        if (reason < 0) {
+            int code = -3 - reason;
+            if (code < cells * size) {
+                buffer[0] = code;
+                return 1;
+            }
+            code -= cells * size;
+            int digit = code % size;
+            int other = code / size % (3 * size);
+            int unit = code / size / (3 * size);
+            int count = 0;
+            for (int cell : geometry.units[unit]) {
+                if (!inUnit(cell, other) && cell * size + digit != exclude) {
+                    buffer[count++] = cell * size + digit;
+                }
+            }
+            return count;
+        }
+        if (reason < groups) {
+            return groupVariables(reason, exclude);
+        }
+        int[] clause = clauses.get(reason - groups);
+        if (buffer.length <= clause.length) {
+            buffer = new int[2 * clause.length];
+        }
+        int count = 0;
+        for (int literal : clause) {
+            if (literal >>> 1 != exclude) {
+                buffer[count++] = literal >>> 1;
+            }
+        }
+        return count;
+    }
+
+    private int groupVariables(int group, int exclude) {
+        int count = 0;
+        if (group < cells) {
+            for (int digit = 0; digit < size; digit++) {
+                int variable = group * size + digit;
+                if (variable != exclude) {
+                    buffer[count++] = variable;
+                }
+            }
+        } else {
+            int unit = (group - cells) / size;
+            int digit = (group - cells) % size;
+            for (int cell : geometry.units[unit]) {
+                int variable = cell * size + digit;
+                if (variable != exclude) {
+                    buffer[count++] = variable;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Maps the reason a variable was set to true to the reason recorded in the trace. The last
+     * digit left for a cell is a naked single and the last place left for a digit in a unit is a
+     * hidden single, whatever ruled out the others. Variables set by a learned clause are
+     * recorded as guesses, since they follow from contradictions found while searching rather
+     * than from a rule that can be checked on the board.
+     */
+    private int traceReason(int variable) {
+        int reason = reasons[variable];
+        if (reason >= 0 && reason < cells) {
+            return SolveTrace.Reason.NAKED_SINGLE.ordinal();
+        }
+        if (reason >= cells && reason < groups) {
+            return SolveTrace.Reason.HIDDEN_SINGLE.ordinal();
+        }
+        return SolveTrace.Reason.GUESS.ordinal();
+    }
+
+    private int nextDecision() {
+        while (heapSize > 0) {
+            int variable = heap[0];
+            removeTop();
+            if (assignment[variable] == UNASSIGNED) {
+                return variable;
+            }
+        }
+        return -1;
+    }
+
+    private void assign(int variable, byte value, int reason) {
+        assignment[variable] = value;
+        levels[variable] = level;
+        reasons[variable] = reason;
+        trail[trailSize++] = variable;
+    }
+
+    /**
+     * Undoes every assignment above the given level. Group counters are only restored for false
+     * variables that were already propagated.
+     */
+    private void backtrack(int target) {
+        if (level <= target) {
+            return;
+        }
+        int start = levelStarts[target + 1];
+        for (int i = trailSize - 1; i >= start; i--) {
+            int variable = trail[i];
+            if (assignment[variable] == FALSE && i < queueHead) {
+                int cell = variable / size;
+                int digit = variable % size;
+                free[cell]++;
+                for (int unit : geometry.unitsOf[cell]) {
+                    free[cells + unit * size + digit]++;
+                }
+            }
+            assignment[variable] = UNASSIGNED;
+            if (heapIndex[variable] < 0) {
+                insert(variable);
+            }
+        }
+        trailSize = start;
+        queueHead = Math.min(queueHead, start);
+        level = target;
+    }
+
+    private void watch(int literal, int ref) {
+        int[] list = watches[literal];
+        if (list == null) {
+            list = new int[4];
+            watches[literal] = list;
+        } else if (watchSizes[literal] == list.length) {
+            list = Arrays.copyOf(list, 2 * list.length);
+            watches[literal] = list;
+        }
+        list[watchSizes[literal]++] = ref;
+    }
+
+    private boolean isTrue(int literal) {
+        byte value = assignment[literal >>> 1];
+        return value != UNASSIGNED && value == valueOf(literal);
+    }
+
+    private boolean isFalse(int literal) {
+        byte value = assignment[literal >>> 1];
+        return value != UNASSIGNED && value != valueOf(literal);
+    }
+
+    /**
+     * Returns the value that makes the given literal true. Literal {@code 2v} stands for variable
+     * v being true, literal {@code 2v + 1} for it being false.
+     */
+    private static byte valueOf(int literal) {
+        return (literal & 1) == 0 ? TRUE : FALSE;
+    }
+
+    /**
+     * Returns the literal of the given variable that is false under the current assignment.
+     */
+    private int falseLiteral(int variable) {
+        return 2 * variable + (assignment[variable] == TRUE ? 1 : 0);
+    }
+
+    /**
+     * Returns the reason code of variables set to false because the given variable is true.
+     */
+    private static int binaryReason(int variable) {
+        return -3 - variable;
+    }
+
+    private void bump(int variable) {
+        activities[variable] += activityIncrement;
+        if (activities[variable] > 1e100) {
+            for (int i = 0; i < activities.length; i++) {
+                activities[i] *= 1e-100;
+            }
+            activityIncrement *= 1e-100;
+        }
+        if (heapIndex[variable] >= 0) {
+            siftUp(heapIndex[variable]);
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return activities[a] > activities[b] || activities[a] == activities[b] && a < b;
+    }
+
+    private void insert(int variable) {
+        heap[heapSize] = variable;
+        heapIndex[variable] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private void removeTop() {
+        heapIndex[heap[0]] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        int variable = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(variable, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heapIndex[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = variable;
+        heapIndex[variable] = index;
+    }
+
+    private void siftDown(int index) {
+        int variable = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], variable)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = variable;
+        heapIndex[variable] = index;
+    }
+
+    /**
+     * Returns the given element of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...
+     *
+     * @param index the position in the sequence, starting at 1.
+     */
+    private static long luby(long index) {
+        int k = 1;
+        while (true) {
+            if (index == (1L << k) - 1) {
+                return 1L << (k - 1);
+            }
+            if ((1L << (k - 1)) <= index && index < (1L << k) - 1) {
+                index -= (1L << (k - 1)) - 1;
+                k = 1;
+            } else {
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Validates the dimensions of the given grid and returns the precomputed peer and unit tables
+     * for its size. Tables are built once per size and shared between calls.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku grid.
+     * @return the geometry for the size of the given grid.
+     * @throws IllegalArgumentException if the grid is null, empty, or not a square grid with
+     *                                  valid dimensions.
+     */
+    private static Geometry geometryFor(int[][] sudoku) {
+        if (sudoku == null || sudoku.length == 0) {
+            throw new IllegalArgumentException("Sudoku must NOT be null or empty!");
+        }
+
+        int sudokuSize = sudoku.length;
+        int subSudokuSize = (int) Math.sqrt(sudokuSize);
+
+        if (subSudokuSize * subSudokuSize != sudokuSize) {
+            throw new IllegalArgumentException("Sudoku must be a square!");
+        }
+        for (int[] row : sudoku) {
+            if (row == null || row.length != sudokuSize) {
+                throw new IllegalArgumentException("Sudoku must be a square!");
+            }
+        }
+        return GEOMETRIES.computeIfAbsent(sudokuSize, Geometry::new);
+    }
+
+    private static final class Geometry {
+        private final int size;
+        private final int subSize;
+        private final int cells;
+        private final int[] boxOf;
+        private final int[][] units;
+        private final int[][] unitsOf;
+        private final int[][] peers;
+
+        private Geometry(int size) {
+            this.size = size;
+            this.subSize = (int) Math.sqrt(size);
+            this.cells = size * size;
+
+            this.boxOf = new int[cells];
+            this.units = new int[3 * size][size];
+            for (int i = 0; i < size; i++) {
+                int boxRow = (i / subSize) * subSize;
+                int boxCol = (i % subSize) * subSize;
+                for (int j = 0; j < size; j++) {
+                    int boxCell = (boxRow + j / subSize) * size + boxCol + j % subSize;
+                    units[i][j] = i * size + j;
+                    units[size + i][j] = j * size + i;
+                    units[2 * size + i][j] = boxCell;
+                    boxOf[boxCell] = i;
+                }
+            }
+
+            this.unitsOf = new int[cells][];
+            this.peers = new int[cells][];
+            int peerCount = 2 * (size - 1) + (subSize - 1) * (subSize - 1);
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int cell = row * size + col;
+                    unitsOf[cell] = new int[]{row, size + col, 2 * size + boxOf[cell]};
+
+                    int[] cellPeers = new int[peerCount];
+                    int index = 0;
+                    for (int i = 0; i < size; i++) {
+                        if (i != col) {
+                            cellPeers[index++] = row * size + i;
+                        }
+                        if (i != row) {
+                            cellPeers[index++] = i * size + col;
+                        }
+                    }
+                    int startRow = (row / subSize) * subSize;
+                    int startCol = (col / subSize) * subSize;
+                    for (int i = startRow; i < startRow + subSize; i++) {
+                        for (int j = startCol; j < startCol + subSize; j++) {
+                            if (i != row && j != col) {
+                                cellPeers[index++] = i * size + j;
+                            }
+                        }
+                    }
+                    peers[cell] = cellPeers;
+                }
+            }
+        }
+    }
+}
@@ -10,6 +10,8 @@ public class CsvHandler {
      * Reads a CSV file containing a square matrix of integers and converts it into a 2D array of integers.
      * The CSV file must have valid formatting, where each line contains the same number of integers,
      * and the number of lines equals the number of integers in each line.
+     * Values are parsed straight from the characters of each line, so multi-digit values of large
+     * grids (e.g., 36x36 to 64x64) do not create an intermediate string per cell.
      *
      * @param filename the name or path of the CSV file to read
      * @return a 2D integer array representing the contents of the square matrix in the CSV file
@@ -17,13 +19,12 @@ public class CsvHandler {
      *                          non-integer values, or an empty file)
      */
     public static int[][] readCsv(String filename) {
-        List<String[]> lines = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
 
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");
-                lines.add(values);
+                lines.add(line);
             }
 
             if (lines.isEmpty()) {
@@ -34,16 +35,7 @@ public class CsvHandler {
             int[][] sudokuBoard = new int[size][size];
 
             for (int i = 0; i < size; i++) {
-                if (lines.get(i).length != size) {
-                    throw new IOException("CSV file has invalid format");
-                }
-                for (int j = 0; j < size; j++) {
-                    try {
-                        sudokuBoard[i][j] = Integer.parseInt(lines.get(i)[j]);
-                    } catch (NumberFormatException e) {
-                        throw new IOException("CSV file has invalid format");
-                    }
-                }
+                parseRow(lines.get(i), sudokuBoard[i]);
             }
             return sudokuBoard;
         } catch (IOException e) {
@@ -51,6 +43,42 @@ public class CsvHandler {
         }
     }
 
+    /**
+     * Parses a single comma separated line of non-negative integers into the given row.
+     *
+     * @param line the line to parse, without line terminator
+     * @param row the array to fill; the line must contain exactly {@code row.length} values
+     * @throws IOException if the line contains a different number of values, an empty value,
+     *                     or a character that is not a digit
+     */
+    private static void parseRow(String line, int[] row) throws IOException {
+        int column = 0;
+        int value = 0;
+        boolean hasDigits = false;
+        for (int i = 0, length = line.length(); i <= length; i++) {
+            char c = i < length ? line.charAt(i) : ',';
+            if (c == ',') {
+                if (!hasDigits || column >= row.length) {
+                    throw new IOException("CSV file has invalid format");
+                }
+                row[column++] = value;
+                value = 0;
+                hasDigits = false;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > row.length) {
+                    throw new IOException("CSV file has invalid format");
+                }
+                hasDigits = true;
+            } else {
+                throw new IOException("CSV file has invalid format");
+            }
+        }
+        if (column != row.length) {
+            throw new IOException("CSV file has invalid format");
+        }
+    }
+
     /**
      * Writes a 2D integer array, representing a Sudoku board or other matrix, to a CSV file.
      * Each row in the matrix corresponds to a line in the CSV file, with values separated by commas.
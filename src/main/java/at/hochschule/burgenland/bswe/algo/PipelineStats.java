@@ -0,0 +1,78 @@
+package at.hochschule.burgenland.bswe.algo;
+
+import java.util.List;
+
+/**
+ * A snapshot of the progress of a {@link SudokuPipeline} run.
+ *
+ * @param elapsedNanos the time since the run started, or its total time once it has finished.
+ * @param solved       the number of puzzles that were solved and written.
+ * @param unsolvable   the number of puzzles that have no solution.
+ * @param failed       the number of jobs that could not be read, solved or written.
+ * @param failures     a message for every failed job, naming its input file.
+ * @param queues       the queues between the stages, in pipeline order.
+ * @param stages       the stages of the pipeline, in pipeline order.
+ */
+public record PipelineStats(long elapsedNanos, int solved, int unsolvable, int failed, List<String> failures,
+                            List<QueueStats> queues, List<StageStats> stages) {
+
+    /**
+     * The fill level of a bounded queue between two stages. A queue that stays full means the
+     * stage behind it cannot keep up, a queue that stays empty means the stage in front of it
+     * cannot keep up.
+     *
+     * @param name      the name of the queue.
+     * @param depth     the number of items in the queue when the snapshot was taken.
+     * @param peakDepth the highest number of items seen in the queue.
+     * @param capacity  the number of items the queue holds before its producer has to wait.
+     */
+    public record QueueStats(String name, int depth, int peakDepth, int capacity) {
+    }
+
+    /**
+     * The work done by the threads of a stage.
+     *
+     * @param name        the name of the stage.
+     * @param threads     the number of threads running the stage.
+     * @param items       the number of items the stage has processed.
+     * @param busyNanos   the time all threads of the stage spent processing items, not counting
+     *                    the time spent waiting on a queue.
+     * @param utilization the busy time relative to the elapsed time of all threads of the stage,
+     *                    between 0 and 1.
+     */
+    public record StageStats(String name, int threads, int items, long busyNanos, double utilization) {
+    }
+
+    /**
+     * Returns the stage with the highest utilization, i.e. the one that limits the throughput.
+     */
+    public StageStats bottleneck() {
+        StageStats bottleneck = stages.get(0);
+        for (StageStats stage : stages) {
+            if (stage.utilization() > bottleneck.utilization()) {
+                bottleneck = stage;
+            }
+        }
+        return bottleneck;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Solved: ").append(solved)
+                .append(", unsolvable: ").append(unsolvable)
+                .append(", failed: ").append(failed)
+                .append(", took ").append(elapsedNanos / 1_000_000).append(" ms.");
+        for (StageStats stage : stages) {
+            builder.append(System.lineSeparator())
+                    .append(String.format("Stage %-6s %2d thread(s), %5d item(s), %5.1f %% busy",
+                            stage.name(), stage.threads(), stage.items(), stage.utilization() * 100));
+        }
+        for (QueueStats queue : queues) {
+            builder.append(System.lineSeparator())
+                    .append(String.format("Queue %-6s %d of %d queued, peak %d",
+                            queue.name(), queue.depth(), queue.capacity(), queue.peakDepth()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,932 @@
+package at.hochschule.burgenland.bswe.algo;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+public class SolutionStore implements AutoCloseable {
+
+    /**
+     * Largest grid size that can be stored. Every cell is stored as a single byte.
+     */
+    public static final int MAX_SIZE = 255;
+
+    private static final String FILE_PREFIX = "solutions.";
+    private static final String DATA_SUFFIX = ".dat";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String POINTER_FILE = "solutions.current";
+    private static final String LOCK_FILE = "solutions.lock";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int DATA_MAGIC = 0x53444154;
+    private static final int INDEX_MAGIC = 0x53494458;
+    private static final int POINTER_MAGIC = 0x53505452;
+    private static final int POINTER_SIZE = 24;
+    private static final int VERSION = 1;
+    private static final int DATA_HEADER = 16;
+    private static final int INDEX_HEADER = 64;
+    private static final int SLOT = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int GENERATION = 8;
+    private static final int CAPACITY = 16;
+    private static final int STALE = 20;
+    private static final int INDEXED_LENGTH = 24;
+    private static final int COUNT = 32;
+
+    private static final int RECORD_HEADER = 19;
+    private static final int BODY_OFFSET = 8;
+    private static final int CELLS_OFFSET = RECORD_HEADER;
+    private static final byte UNSOLVABLE = 0;
+    private static final byte SOLVED = 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final boolean writable;
+    private final FileChannel lockChannel;
+    private volatile Snapshot snapshot;
+    private volatile boolean closed;
+    private long dataEnd;
+    private int count;
+    private long indexNumber;
+
+    private SolutionStore(Path directory, boolean writable, FileChannel lockChannel) {
+        this.directory = directory;
+        this.writable = writable;
+        this.lockChannel = lockChannel;
+    }
+
+    /**
+     * Opens the solution store in the given directory for reading and writing, creating it if it
+     * does not exist yet. Only one writer may have a store open at a time; this is enforced with
+     * a lock file, so it also holds across processes.
+     *
+     * Solutions are kept in an append-only data file, and a memory-mapped hash index points from
+     * the hash of every puzzle to its latest record. Both files are numbered, and a small pointer
+     * file names the current ones. A grown or compacted file is written under a new number and the
+     * pointer file is replaced afterwards, so no file is replaced while it is open or mapped, which
+     * Windows does not allow. When the store is opened, records that were
+     * written after the index was last updated are indexed, and a record that was only partly
+     * written when the previous writer stopped is cut off. A damaged record that is followed by
+     * further data cannot be left by a stopped writer, so the store is not opened in that case
+     * instead of dropping the records behind it. If the index is missing or does not belong to
+     * the data file, it is rebuilt from the data file.
+     *
+     * @param directory the directory holding the store files.
+     * @return the opened store.
+     * @throws RuntimeException if the store is already opened by another writer, the files have
+     *                          invalid content, or an I/O error occurs.
+     */
+    public static SolutionStore open(Path directory) {
+        FileChannel lockChannel = null;
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("Solution store is already opened by another writer");
+            }
+
+            SolutionStore store = new SolutionStore(directory, true, lockChannel);
+            store.recover();
+            return store;
+        } catch (IOException e) {
+            closeQuietly(lockChannel);
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closeQuietly(lockChannel);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the solution store in the given directory for reading only. Any number of readers may
+     * use the store while a writer adds to it. A reader picks up a rebuilt, grown or compacted
+     * index as soon as a lookup misses, and an empty or missing store simply has no solutions.
+     *
+     * @param directory the directory holding the store files.
+     * @return the opened store.
+     * @throws RuntimeException if the files have invalid content or an I/O error occurs.
+     */
+    public static SolutionStore openReadOnly(Path directory) {
+        SolutionStore store = new SolutionStore(directory, false, null);
+        try {
+            store.refresh();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return store;
+    }
+
+    /**
+     * Solves a given Sudoku puzzle, taking the result from the store if the puzzle was solved
+     * before. Otherwise, the puzzle is solved with {@link SudokuChecker#checkSudoku(int[][])} and,
+     * if the store is writable, the result is added to the store. Puzzles that turned out to be
+     * unsolvable are remembered as well.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku puzzle to be solved. Empty cells
+     *               are represented by 0. The size of the grid must be n x n, where n is a perfect
+     *               square.
+     * @return the solved Sudoku grid (the input array, filled in) if a solution exists, or null if
+     *         the puzzle cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions.
+     * @throws IllegalStateException if the puzzle had to be solved and the solver gave up on it;
+     *                               it is not stored then.
+     * @throws RuntimeException if an I/O error occurs while accessing the store.
+     */
+    public int[][] solve(int[][] sudoku) {
+        return solve(sudoku, null);
+    }
+
+    /**
+     * Solves a given Sudoku puzzle like {@link #solve(int[][])}. If the puzzle has to be solved,
+     * the progress of the search is shown to the given listener, see
+     * {@link SudokuChecker#checkSudoku(int[][], Consumer)}.
+     *
+     * @param sudoku   the 2D integer array representing the Sudoku puzzle to be solved. Empty
+     *                 cells are represented by 0. The size of the grid must be n x n, where n is a
+     *                 perfect square.
+     * @param progress the listener to show the progress to, or null to solve without it.
+     * @return the solved Sudoku grid (the input array, filled in) if a solution exists, or null if
+     *         the puzzle cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions.
+     * @throws IllegalStateException if the puzzle had to be solved and the solver gave up on it;
+     *                               it is not stored then.
+     * @throws RuntimeException if an I/O error occurs while accessing the store.
+     */
+    public int[][] solve(int[][] sudoku, Consumer<int[][]> progress) {
+        byte[] puzzle = encode(sudoku);
+        if (puzzle == null) {
+            return SudokuChecker.checkSudoku(sudoku, progress);
+        }
+
+        Record record = lookup(puzzle);
+        if (record != null) {
+            if (!record.solved()) {
+                return null;
+            }
+            decode(record, sudoku);
+            return sudoku;
+        }
+
+        int[][] solution = SudokuChecker.checkSudoku(sudoku, progress);
+        if (writable) {
+            append(puzzle, solution == null ? null : encode(solution));
+        }
+        return solution;
+    }
+
+    /**
+     * Looks up the stored solution of a given Sudoku puzzle.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku puzzle. Empty cells are
+     *               represented by 0.
+     * @return a new grid holding the stored solution, or null if the puzzle is not stored or is
+     *         stored as unsolvable.
+     * @throws RuntimeException if an I/O error occurs while accessing the store.
+     */
+    public int[][] get(int[][] sudoku) {
+        byte[] puzzle = encode(sudoku);
+        Record record = puzzle == null ? null : lookup(puzzle);
+        if (record == null || !record.solved()) {
+            return null;
+        }
+        int[][] solution = new int[sudoku.length][sudoku.length];
+        decode(record, solution);
+        return solution;
+    }
+
+    /**
+     * Stores the solution of a given Sudoku puzzle, replacing the solution stored so far. The
+     * solution is not checked, so it should come from {@link SudokuChecker#checkSudoku(int[][])}.
+     *
+     * @param sudoku   the 2D integer array representing the Sudoku puzzle. Empty cells are
+     *                 represented by 0.
+     * @param solution the solved grid, or null if the puzzle is unsolvable.
+     * @throws IllegalArgumentException if the puzzle or the solution cannot be stored, e.g.
+     *                                  because the grid is larger than {@link #MAX_SIZE}.
+     * @throws IllegalStateException if the store was opened read-only or is closed.
+     * @throws RuntimeException if an I/O error occurs while writing the store.
+     */
+    public void put(int[][] sudoku, int[][] solution) {
+        byte[] puzzle = encode(sudoku);
+        byte[] solved = solution == null ? null : encode(solution);
+        if (puzzle == null || (solution != null && (solved == null || solved.length != puzzle.length))) {
+            throw new IllegalArgumentException("Sudoku cannot be stored!");
+        }
+        append(puzzle, solved);
+    }
+
+    /**
+     * Returns the number of puzzles in the store.
+     */
+    public int size() {
+        Snapshot current = current();
+        return current == null || current.index == null ? 0 : (int) INTS.getAcquire(current.index, COUNT);
+    }
+
+    /**
+     * Rewrites the data file so that it only contains the latest record of every puzzle, and
+     * builds a matching index. Both files are written under new numbers and the pointer file is
+     * switched to them once they are complete, so the store stays usable if the process stops
+     * halfway. Readers that still use the old files keep working and switch to the new ones with
+     * their next miss. The old files are deleted; files that cannot be deleted yet, e.g. because
+     * a reader on Windows still maps them, are deleted when the store is opened again.
+     *
+     * @throws IllegalStateException if the store was opened read-only or is closed.
+     * @throws RuntimeException if an I/O error occurs while writing the store.
+     */
+    public synchronized void compact() {
+        checkWritable();
+        Snapshot old = snapshot;
+        long generation = old.generation + 1;
+        long number = indexNumber + 1;
+        FileChannel data = null;
+        try {
+            int capacity = INITIAL_CAPACITY;
+            while (count * 2 >= capacity) {
+                capacity *= 2;
+            }
+            long position = DATA_HEADER;
+            MappedByteBuffer index = createIndex(indexPath(number), generation, capacity);
+            data = FileChannel.open(dataPath(generation), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeFully(data, dataHeader(generation), 0);
+            for (int slot = 0; slot < old.capacity; slot++) {
+                int offset = INDEX_HEADER + slot * SLOT;
+                long stored = (long) LONGS.getAcquire(old.index, offset + 8);
+                if (stored == 0) {
+                    continue;
+                }
+                Record record = readRecord(old.data, stored);
+                if (record == null) {
+                    throw new IOException("Solution store has invalid format");
+                }
+                writeFully(data, record.bytes(), position);
+                place(index, capacity, record.hash(), position);
+                position += record.bytes().remaining();
+            }
+            data.force(true);
+            INTS.setRelease(index, COUNT, count);
+            LONGS.setRelease(index, INDEXED_LENGTH, position);
+            index.force();
+
+            writePointer(generation, number);
+            INTS.setRelease(old.index, STALE, 1);
+            snapshot = new Snapshot(data, new AtomicInteger(1), generation, index, capacity);
+            dataEnd = position;
+            release(old);
+            deleteQuietly(dataPath(old.generation));
+            deleteQuietly(indexPath(indexNumber));
+            indexNumber = number;
+        } catch (IOException e) {
+            if (snapshot == old) {
+                closeQuietly(data);
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes all pending changes to disk and closes the store. For a writer, the lock is released
+     * so another writer can open the store. A lookup that is still running on another thread
+     * finishes first, and the data file is closed once it is done.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Snapshot current = snapshot;
+        try {
+            if (current != null) {
+                if (writable) {
+                    current.data.force(true);
+                    current.index.force();
+                }
+                release(current);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            closeQuietly(lockChannel);
+        }
+    }
+
+    /**
+     * Opens the data file and the index named by the pointer file for the writer. A missing store
+     * is created, and an index that is missing or belongs to another generation of the data file
+     * is rebuilt under a new number. Records behind the indexed part of the data file are indexed,
+     * and a damaged tail is cut off. Files left over from earlier generations are deleted.
+     *
+     * @throws IOException if the data file has invalid content, including a damaged record in
+     *                     the middle of the file, or an I/O error occurs.
+     */
+    private void recover() throws IOException {
+        long[] pointer = readPointer();
+        FileChannel data;
+        if (pointer == null) {
+            data = FileChannel.open(dataPath(1), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            data = FileChannel.open(dataPath(pointer[0]), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        try {
+            if (data.size() == 0) {
+                writeFully(data, dataHeader(1), 0);
+                data.force(true);
+            }
+            long generation = readGeneration(data);
+            if (pointer != null && generation != pointer[0]) {
+                throw new IOException("Solution store has invalid format");
+            }
+
+            MappedByteBuffer index = null;
+            indexNumber = pointer == null ? 0 : pointer[1];
+            if (pointer != null && Files.exists(indexPath(indexNumber))) {
+                try (FileChannel channel = FileChannel.open(indexPath(indexNumber), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    if (channel.size() >= INDEX_HEADER) {
+                        index = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                    }
+                }
+            }
+            if (index == null || !isValidIndex(index, generation, data.size())) {
+                indexNumber++;
+                index = createIndex(indexPath(indexNumber), generation, INITIAL_CAPACITY);
+                LONGS.setRelease(index, INDEXED_LENGTH, (long) DATA_HEADER);
+                index.force();
+                writePointer(generation, indexNumber);
+            }
+            deleteStaleFiles(generation);
+
+            snapshot = new Snapshot(data, new AtomicInteger(1), generation, index, index.getInt(CAPACITY));
+            count = index.getInt(COUNT);
+            long position = index.getLong(INDEXED_LENGTH);
+            long size = data.size();
+            while (position < size) {
+                Record record = readRecord(data, position);
+                if (record == null) {
+                    if (!isTail(data, position, size)) {
+                        throw new IOException("Solution store has a damaged record at position " + position);
+                    }
+                    data.truncate(position);
+                    break;
+                }
+                index(record, position);
+                position += record.bytes().remaining();
+            }
+            dataEnd = position;
+            LONGS.setRelease(snapshot.index, INDEXED_LENGTH, position);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(data);
+            throw e;
+        }
+    }
+
+    /**
+     * Reopens the data file and the index named by the pointer file for a reader. If the store
+     * does not exist yet or the index does not belong to the data file, the reader works without
+     * an index until the next refresh.
+     *
+     * @throws IOException if the data file has invalid content or an I/O error occurs.
+     */
+    private synchronized void refresh() throws IOException {
+        long[] pointer = readPointer();
+        if (closed || pointer == null) {
+            return;
+        }
+        FileChannel data;
+        try {
+            data = FileChannel.open(dataPath(pointer[0]), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // the writer compacted the store again, the next refresh picks up the new files
+            return;
+        }
+        Path indexPath = indexPath(pointer[1]);
+        try {
+            if (data.size() < DATA_HEADER) {
+                data.close();
+                return;
+            }
+            long generation = readGeneration(data);
+            MappedByteBuffer index = null;
+            if (Files.exists(indexPath)) {
+                try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                    if (channel.size() >= INDEX_HEADER) {
+                        index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                }
+            }
+            if (index != null && !isValidIndex(index, generation, data.size())) {
+                index = null;
+            }
+
+            Snapshot old = snapshot;
+            if (old != null && index == null && old.index == null && old.generation == generation) {
+                data.close();
+                return;
+            }
+            snapshot = new Snapshot(data, new AtomicInteger(1), generation, index, index == null ? 0 : index.getInt(CAPACITY));
+            release(old);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(data);
+            throw e;
+        }
+    }
+
+    private Record lookup(byte[] puzzle) {
+        long hash = hash(puzzle);
+        try {
+            Record record;
+            boolean stale;
+            Snapshot current = acquire();
+            try {
+                record = current == null ? null : find(current, puzzle, hash);
+                stale = current == null || current.index == null || (int) INTS.getAcquire(current.index, STALE) != 0;
+            } finally {
+                release(current);
+            }
+            if (record == null && !writable && stale) {
+                refresh();
+                current = acquire();
+                try {
+                    record = current == null ? null : find(current, puzzle, hash);
+                } finally {
+                    release(current);
+                }
+            }
+            return record;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the current snapshot and registers the caller as a user of its data file, so the
+     * file stays open until {@link #release(Snapshot)} is called, even if a refresh or compaction
+     * replaces the snapshot in the meantime.
+     */
+    private Snapshot acquire() {
+        while (true) {
+            Snapshot current = current();
+            if (current == null) {
+                return null;
+            }
+            for (int users = current.users.get(); users > 0; users = current.users.get()) {
+                if (current.users.compareAndSet(users, users + 1)) {
+                    return current;
+                }
+            }
+            // the data file was closed after the snapshot was replaced, so read it again
+        }
+    }
+
+    /**
+     * Gives up one use of the snapshot's data file. The store itself holds one use of the current
+     * snapshot, which it gives up when the snapshot is replaced or the store is closed; the file
+     * is closed when the last use is given up.
+     */
+    private static void release(Snapshot snapshot) {
+        if (snapshot != null && snapshot.users.decrementAndGet() == 0) {
+            closeQuietly(snapshot.data);
+        }
+    }
+
+    private static Record find(Snapshot snapshot, byte[] puzzle, long hash) throws IOException {
+        if (snapshot.index == null) {
+            return null;
+        }
+        int mask = snapshot.capacity - 1;
+        for (int slot = (int) hash & mask, probes = 0; probes < snapshot.capacity; slot = (slot + 1) & mask, probes++) {
+            int offset = INDEX_HEADER + slot * SLOT;
+            long position = (long) LONGS.getAcquire(snapshot.index, offset + 8);
+            if (position == 0) {
+                return null;
+            }
+            if ((long) LONGS.get(snapshot.index, offset) == hash) {
+                Record record = readRecord(snapshot.data, position);
+                if (record != null && record.matches(puzzle)) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    private synchronized void append(byte[] puzzle, byte[] solution) {
+        checkWritable();
+        try {
+            ByteBuffer bytes = encodeRecord(puzzle, solution);
+            Record record = new Record(hash(puzzle), solution != null, bytes);
+            writeFully(snapshot.data, bytes, dataEnd);
+            index(record, dataEnd);
+            dataEnd += bytes.remaining();
+            LONGS.setRelease(snapshot.index, INDEXED_LENGTH, dataEnd);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Points the index entry of the record's puzzle to the given position, adding an entry if
+     * the puzzle is not indexed yet. The entry's position is published last, so a concurrent
+     * reader either sees the complete entry or none.
+     */
+    private void index(Record record, long position) throws IOException {
+        if ((count + 1) * 2 > snapshot.capacity) {
+            grow();
+        }
+        Snapshot current = snapshot;
+        int mask = current.capacity - 1;
+        for (int slot = (int) record.hash() & mask; ; slot = (slot + 1) & mask) {
+            int offset = INDEX_HEADER + slot * SLOT;
+            long stored = (long) LONGS.getAcquire(current.index, offset + 8);
+            if (stored == 0) {
+                LONGS.set(current.index, offset, record.hash());
+                LONGS.setRelease(current.index, offset + 8, position);
+                INTS.setRelease(current.index, COUNT, ++count);
+                return;
+            }
+            if ((long) LONGS.get(current.index, offset) == record.hash()) {
+                Record other = readRecord(current.data, stored);
+                if (other == null || other.matches(record)) {
+                    LONGS.setRelease(current.index, offset + 8, position);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves all entries into a new index of twice the capacity. The new index is written under a
+     * new number and the pointer file is switched to it. The old index is then marked as stale so
+     * that readers of other processes reopen the index, and deleted.
+     */
+    private void grow() throws IOException {
+        Snapshot old = snapshot;
+        int capacity = old.capacity * 2;
+        long number = indexNumber + 1;
+        MappedByteBuffer index = createIndex(indexPath(number), old.generation, capacity);
+        for (int slot = 0; slot < old.capacity; slot++) {
+            int offset = INDEX_HEADER + slot * SLOT;
+            long position = (long) LONGS.getAcquire(old.index, offset + 8);
+            if (position != 0) {
+                place(index, capacity, (long) LONGS.get(old.index, offset), position);
+            }
+        }
+        INTS.setRelease(index, COUNT, count);
+        LONGS.setRelease(index, INDEXED_LENGTH, (long) LONGS.getAcquire(old.index, INDEXED_LENGTH));
+        index.force();
+        writePointer(old.generation, number);
+        INTS.setRelease(old.index, STALE, 1);
+        snapshot = new Snapshot(old.data, old.users, old.generation, index, capacity);
+        deleteQuietly(indexPath(indexNumber));
+        indexNumber = number;
+    }
+
+    private static void place(MappedByteBuffer index, int capacity, long hash, long position) {
+        int mask = capacity - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int offset = INDEX_HEADER + slot * SLOT;
+            if ((long) LONGS.get(index, offset + 8) == 0) {
+                LONGS.set(index, offset, hash);
+                LONGS.setRelease(index, offset + 8, position);
+                return;
+            }
+        }
+    }
+
+    private static MappedByteBuffer createIndex(Path path, long generation, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * SLOT);
+            index.putInt(0, INDEX_MAGIC);
+            index.putInt(4, VERSION);
+            index.putLong(GENERATION, generation);
+            index.putInt(CAPACITY, capacity);
+            return index;
+        }
+    }
+
+    private static boolean isValidIndex(MappedByteBuffer index, long generation, long dataSize) {
+        int capacity = index.getInt(CAPACITY);
+        long indexedLength = index.getLong(INDEXED_LENGTH);
+        return index.getInt(0) == INDEX_MAGIC
+                && index.getInt(4) == VERSION
+                && index.getLong(GENERATION) == generation
+                && capacity > 0 && Integer.bitCount(capacity) == 1
+                && index.capacity() == INDEX_HEADER + (long) capacity * SLOT
+                && indexedLength >= DATA_HEADER && indexedLength <= dataSize;
+    }
+
+    private Path dataPath(long generation) {
+        return directory.resolve(FILE_PREFIX + generation + DATA_SUFFIX);
+    }
+
+    private Path indexPath(long number) {
+        return directory.resolve(FILE_PREFIX + number + INDEX_SUFFIX);
+    }
+
+    /**
+     * Reads the pointer file.
+     *
+     * @return the generation of the current data file and the number of the current index, or
+     *         null if the store does not exist yet.
+     * @throws IOException if the pointer file has invalid content or an I/O error occurs.
+     */
+    private long[] readPointer() throws IOException {
+        ByteBuffer pointer;
+        try {
+            pointer = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(POINTER_FILE)));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (pointer.capacity() != POINTER_SIZE || pointer.getInt(0) != POINTER_MAGIC || pointer.getInt(4) != VERSION) {
+            throw new IOException("Solution store has invalid format");
+        }
+        return new long[]{pointer.getLong(8), pointer.getLong(16)};
+    }
+
+    /**
+     * Points the store to the given data file and index. The pointer file is written next to the
+     * old one and moved over it. Readers only open it for as long as it takes to read it, so it
+     * can be replaced on every platform.
+     */
+    private void writePointer(long generation, long number) throws IOException {
+        Path temp = directory.resolve(POINTER_FILE + TEMP_SUFFIX);
+        ByteBuffer pointer = ByteBuffer.allocate(POINTER_SIZE);
+        pointer.putInt(POINTER_MAGIC).putInt(VERSION).putLong(generation).putLong(number);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, pointer.flip(), 0);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(POINTER_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes the data files and indexes other than the current ones, e.g. those left behind by a
+     * compaction that did not finish or that a reader still mapped when they were replaced.
+     */
+    private void deleteStaleFiles(long generation) throws IOException {
+        Path data = dataPath(generation);
+        Path index = indexPath(indexNumber);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if ((name.endsWith(DATA_SUFFIX) || name.endsWith(INDEX_SUFFIX)) && !file.equals(data) && !file.equals(index)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // still in use, it is deleted the next time the store is opened
+        }
+    }
+
+    private static ByteBuffer dataHeader(long generation) {
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER);
+        header.putInt(DATA_MAGIC).putInt(VERSION).putLong(generation);
+        return header.flip();
+    }
+
+    private static long readGeneration(FileChannel data) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER);
+        if (readFully(data, header, 0) < DATA_HEADER || header.getInt(0) != DATA_MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Solution store has invalid format");
+        }
+        return header.getLong(8);
+    }
+
+    /**
+     * Reads the record at the given position of the data file.
+     *
+     * @return the record, or null if it is incomplete or its checksum does not match.
+     */
+    private static Record readRecord(FileChannel data, long position) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(BODY_OFFSET);
+        if (readFully(data, head, position) < BODY_OFFSET) {
+            return null;
+        }
+        int length = head.getInt(0);
+        if (length < RECORD_HEADER || length > RECORD_HEADER + 2 * MAX_SIZE * MAX_SIZE) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        if (readFully(data, bytes, position) < length) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), BODY_OFFSET, length - BODY_OFFSET);
+        int size = bytes.getShort(CELLS_OFFSET - 3) & 0xffff;
+        byte status = bytes.get(CELLS_OFFSET - 1);
+        if ((int) crc.getValue() != head.getInt(4)
+                || length != RECORD_HEADER + size * size * (status == SOLVED ? 2 : 1)) {
+            return null;
+        }
+        return new Record(bytes.getLong(BODY_OFFSET), status == SOLVED, bytes);
+    }
+
+    /**
+     * Checks whether a record that could not be read is the partly written last record of the
+     * data file. This is the case if the record would reach the end of the file according to its
+     * length. If not even the length was written, everything behind the position must be zero,
+     * as the file system fills space it has not written yet with zeros.
+     */
+    private static boolean isTail(FileChannel data, long position, long size) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(4);
+        if (readFully(data, head, position) < 4) {
+            return true;
+        }
+        int length = head.getInt(0);
+        if (length >= RECORD_HEADER && length <= RECORD_HEADER + 2 * MAX_SIZE * MAX_SIZE) {
+            return position + length >= size;
+        }
+        ByteBuffer rest = ByteBuffer.allocate(4096);
+        for (long offset = position; offset < size; offset += rest.limit()) {
+            rest.clear();
+            if (readFully(data, rest, offset) == 0) {
+                break;
+            }
+            while (rest.hasRemaining()) {
+                if (rest.get() != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer encodeRecord(byte[] puzzle, byte[] solution) {
+        int length = RECORD_HEADER + puzzle.length + (solution == null ? 0 : solution.length);
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        bytes.putInt(length).putInt(0).putLong(hash(puzzle));
+        bytes.putShort((short) Math.sqrt(puzzle.length)).put(solution == null ? UNSOLVABLE : SOLVED).put(puzzle);
+        if (solution != null) {
+            bytes.put(solution);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), BODY_OFFSET, length - BODY_OFFSET);
+        bytes.putInt(4, (int) crc.getValue());
+        return bytes.flip();
+    }
+
+    /**
+     * Encodes a grid with one byte per cell in row-major order.
+     *
+     * @return the encoded grid, or null if the grid is not a valid square grid of at most
+     *         {@link #MAX_SIZE} or holds a value outside of 0 to n.
+     */
+    private static byte[] encode(int[][] sudoku) {
+        if (sudoku == null || sudoku.length == 0 || sudoku.length > MAX_SIZE) {
+            return null;
+        }
+        int size = sudoku.length;
+        int subSize = (int) Math.sqrt(size);
+        if (subSize * subSize != size) {
+            return null;
+        }
+        byte[] cells = new byte[size * size];
+        for (int row = 0; row < size; row++) {
+            if (sudoku[row] == null || sudoku[row].length != size) {
+                return null;
+            }
+            for (int col = 0; col < size; col++) {
+                int value = sudoku[row][col];
+                if (value < 0 || value > size) {
+                    return null;
+                }
+                cells[row * size + col] = (byte) value;
+            }
+        }
+        return cells;
+    }
+
+    private static void decode(Record record, int[][] sudoku) {
+        int size = sudoku.length;
+        int base = CELLS_OFFSET + size * size;
+        ByteBuffer bytes = record.bytes();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                sudoku[row][col] = bytes.get(base + row * size + col) & 0xff;
+            }
+        }
+    }
+
+    private static long hash(byte[] puzzle) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte cell : puzzle) {
+            hash = (hash ^ (cell & 0xff)) * 0x100000001b3L;
+        }
+        return hash ^ (hash >>> 32);
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        buffer.flip();
+        return total;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        ByteBuffer bytes = buffer.duplicate();
+        long offset = position;
+        while (bytes.hasRemaining()) {
+            offset += channel.write(bytes, offset);
+        }
+    }
+
+    private Snapshot current() {
+        if (closed) {
+            throw new IllegalStateException("Solution store is closed!");
+        }
+        return snapshot;
+    }
+
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Solution store is closed!");
+        }
+        if (!writable) {
+            throw new IllegalStateException("Solution store is read-only!");
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private record Record(long hash, boolean solved, ByteBuffer bytes) {
+
+        private boolean matches(byte[] puzzle) {
+            int size = bytes.getShort(CELLS_OFFSET - 3) & 0xffff;
+            return size * size == puzzle.length
+                    && Arrays.equals(bytes.array(), CELLS_OFFSET, CELLS_OFFSET + puzzle.length, puzzle, 0, puzzle.length);
+        }
+
+        private boolean matches(Record other) {
+            int size = bytes.getShort(CELLS_OFFSET - 3) & 0xffff;
+            return other.bytes.getShort(CELLS_OFFSET - 3) == bytes.getShort(CELLS_OFFSET - 3)
+                    && Arrays.equals(bytes.array(), CELLS_OFFSET, CELLS_OFFSET + size * size,
+                    other.bytes.array(), CELLS_OFFSET, CELLS_OFFSET + size * size);
+        }
+    }
+
+    private static final class Snapshot {
+        private final FileChannel data;
+        private final AtomicInteger users;
+        private final long generation;
+        private final MappedByteBuffer index;
+        private final int capacity;
+
+        private Snapshot(FileChannel data, AtomicInteger users, long generation, MappedByteBuffer index, int capacity) {
+            this.data = data;
+            this.users = users;
+            this.generation = generation;
+            this.index = index;
+            this.capacity = capacity;
+        }
+    }
+}
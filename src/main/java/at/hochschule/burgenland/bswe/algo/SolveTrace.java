@@ -0,0 +1,123 @@
+package at.hochschule.burgenland.bswe.algo;
+
+import java.util.Arrays;
+
+public class SolveTrace {
+
+    /**
+     * Largest grid size that can be traced. Every step is packed into a single int, which leaves
+     * eight bits for the placed value.
+     */
+    public static final int MAX_SIZE = 255;
+
+    private static final int REASON_BITS = 4;
+    private static final int VALUE_BITS = 8;
+    private static final Reason[] REASONS = Reason.values();
+
+    private final int size;
+    private int[] steps;
+    private int length;
+
+    /**
+     * Why a value goes into a cell.
+     */
+    public enum Reason {
+        /**
+         * Every other value was ruled out for the cell, by the values in its row, column and
+         * subgrid or by eliminations made in earlier steps.
+         */
+        NAKED_SINGLE,
+        /**
+         * Every other cell of a row, column or subgrid was ruled out for the value, so it has to
+         * go into this cell.
+         */
+        HIDDEN_SINGLE,
+        /**
+         * The solver tried the value, or placed it because of what it learned from earlier
+         * contradictions rather than because of a single rule that can be checked on the board.
+         */
+        GUESS,
+        /**
+         * The cell already holds a different value, which is not part of the solution. The step
+         * gives the value that belongs there. Such steps are never recorded, they are only
+         * returned by {@link TracedSolution#nextHint(int[][])}.
+         */
+        WRONG_VALUE
+    }
+
+    /**
+     * A single placement of the trace.
+     *
+     * @param row    the row of the cell, starting at 0.
+     * @param col    the column of the cell, starting at 0.
+     * @param value  the value placed into the cell.
+     * @param reason why the value was placed.
+     */
+    public record Step(int row, int col, int value, Reason reason) {
+    }
+
+    /**
+     * Creates an empty trace for grids of the given size.
+     *
+     * @param size the size of the grid (e.g., 9 for a 9x9 grid).
+     * @throws IllegalArgumentException if the size is not positive or larger than {@link #MAX_SIZE}.
+     */
+    public SolveTrace(int size) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Sudoku size must be between 1 and " + MAX_SIZE + "!");
+        }
+        this.size = size;
+        this.steps = new int[size * size];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Step getStep(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Step " + index + " is out of range!");
+        }
+        return decode(steps[index]);
+    }
+
+    /**
+     * Looks up the next step for a partially filled board. The steps are scanned in the order the
+     * solver made them and the first one whose cell is still empty on the board is returned, so no
+     * solving is needed to answer the request.
+     *
+     * @param board the 2D integer array representing the current state of the puzzle the trace was
+     *              recorded for. Empty cells are represented by 0.
+     * @return the next step to take, or null if every traced cell is already filled.
+     * @throws IllegalArgumentException if the board does not have the size of the trace.
+     */
+    public Step nextHint(int[][] board) {
+        if (board == null || board.length != size) {
+            throw new IllegalArgumentException("Sudoku does not match the trace size!");
+        }
+        for (int i = 0; i < length; i++) {
+            int cell = steps[i] >>> (VALUE_BITS + REASON_BITS);
+            if (board[cell / size][cell % size] == 0) {
+                return decode(steps[i]);
+            }
+        }
+        return null;
+    }
+
+    void record(int cell, int value, int reason) {
+        if (length == steps.length) {
+            steps = Arrays.copyOf(steps, steps.length * 2);
+        }
+        steps[length++] = cell << (VALUE_BITS + REASON_BITS) | value << REASON_BITS | reason;
+    }
+
+    private Step decode(int step) {
+        int cell = step >>> (VALUE_BITS + REASON_BITS);
+        int value = (step >>> REASON_BITS) & ((1 << VALUE_BITS) - 1);
+        return new Step(cell / size, cell % size, value, REASONS[step & ((1 << REASON_BITS) - 1)]);
+    }
+}
@@ -1,11 +1,21 @@
 package at.hochschule.burgenland.bswe.algo;
 
+import java.util.function.Consumer;
+
 public class SudokuChecker {
 
+    /**
+     * Largest grid size that is still solved with the plain backtracking algorithm. Bigger grids
+     * are handed over to the {@link ClauseLearningSudokuSolver}.
+     */
+    public static final int MAX_BACKTRACKING_SIZE = 25;
+
     /**
      * Validates and attempts to solve a given Sudoku puzzle using a backtracking algorithm.
      * Verifies the input Sudoku grid is a valid square matrix and solves the puzzle only
-     * if it meets the structural requirements of a Sudoku grid.
+     * if it meets the structural requirements of a Sudoku grid. Grids larger than
+     * {@link #MAX_BACKTRACKING_SIZE} (e.g., 36x36, 49x49, 64x64) are solved with the
+     * {@link ClauseLearningSudokuSolver} instead.
      *
      * @param sudoku the 2D integer array representing the Sudoku puzzle to be solved. Elements
      *               in the grid must be non-negative integers, where 0 represents an empty cell.
@@ -13,8 +23,31 @@ public class SudokuChecker {
      * @return the solved Sudoku grid if a solution exists, or null if the puzzle cannot be solved.
      * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
      *                                  square grid with valid dimensions.
+     * @throws IllegalStateException    if the {@link ClauseLearningSudokuSolver} gives up on the
+     *                                  puzzle, see {@link ClauseLearningSudokuSolver#MAX_CONFLICTS}.
      */
     public static int[][] checkSudoku(int[][] sudoku) {
+        return checkSudoku(sudoku, null);
+    }
+
+    /**
+     * Validates and solves a given Sudoku puzzle like {@link #checkSudoku(int[][])}, and shows the
+     * progress of the search to the given listener while it runs, e.g. to draw the board with a
+     * {@link BoardRenderer}. Only grids larger than
+     * {@link #MAX_BACKTRACKING_SIZE} report progress, as smaller ones are solved too quickly for
+     * it; see {@link ClauseLearningSudokuSolver#solve(int[][], SolveTrace, Consumer)}.
+     *
+     * @param sudoku   the 2D integer array representing the Sudoku puzzle to be solved. Elements
+     *                 in the grid must be non-negative integers, where 0 represents an empty cell.
+     *                 The size of the grid must be n x n, where n is a perfect square.
+     * @param progress the listener to show the progress to, or null to solve without it.
+     * @return the solved Sudoku grid if a solution exists, or null if the puzzle cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, or not a
+     *                                  square grid with valid dimensions.
+     * @throws IllegalStateException    if the {@link ClauseLearningSudokuSolver} gives up on the
+     *                                  puzzle, see {@link ClauseLearningSudokuSolver#MAX_CONFLICTS}.
+     */
+    public static int[][] checkSudoku(int[][] sudoku, Consumer<int[][]> progress) {
         if (sudoku == null || sudoku.length == 0) {
             throw new IllegalArgumentException("Sudoku must NOT be null or empty!");
         }
@@ -26,6 +59,10 @@ public class SudokuChecker {
             throw new IllegalArgumentException("Sudoku must be a square!");
         }
 
+        if (sudokuSize > MAX_BACKTRACKING_SIZE) {
+            return ClauseLearningSudokuSolver.solve(sudoku, null, progress);
+        }
+
         if (solveSudokuWithBacktrackingAlgorithm(sudoku, sudokuSize, subSudokuSize)) {
             return sudoku;
         } else {
@@ -33,6 +70,29 @@ public class SudokuChecker {
         }
     }
 
+    /**
+     * Validates and solves a given Sudoku puzzle like {@link #checkSudoku(int[][])}, but records
+     * every placement together with the reason it was made. The recorded trace is returned along
+     * with the solution, so hints for partially filled boards of the same puzzle can be looked up
+     * later instead of solving the puzzle again. Grids of every size are solved with the
+     * {@link ClauseLearningSudokuSolver}, as the backtracking algorithm has no deductions to
+     * report.
+     *
+     * @param sudoku the 2D integer array representing the Sudoku puzzle to be solved. Elements
+     *               in the grid must be non-negative integers, where 0 represents an empty cell.
+     *               The size of the grid must be n x n, where n is a perfect square (e.g., 4x4, 9x9).
+     * @return the solved Sudoku grid and its trace if a solution exists, or null if the puzzle
+     *         cannot be solved.
+     * @throws IllegalArgumentException if the provided Sudoku grid is null, empty, not a square
+     *                                  grid with valid dimensions, or larger than
+     *                                  {@link SolveTrace#MAX_SIZE}.
+     * @throws IllegalStateException    if the {@link ClauseLearningSudokuSolver} gives up on the
+     *                                  puzzle, see {@link ClauseLearningSudokuSolver#MAX_CONFLICTS}.
+     */
+    public static TracedSolution checkSudokuWithTrace(int[][] sudoku) {
+        return ClauseLearningSudokuSolver.solveWithTrace(sudoku);
+    }
+
     /**
      * Attempts to solve a Sudoku puzzle using a backtracking algorithm. This method recursively
      * fills in the empty cells (denoted by 0) with valid numbers that comply with Sudoku rules.
@@ -110,6 +170,8 @@ public class SudokuChecker {
      * Determines whether a given Sudoku grid is completely solved and valid according to Sudoku rules.
      * A Sudoku grid is considered solved if all cells are filled with valid numbers that
      * comply with the constraints of appearing only once in each row, column, and subgrid.
+     * Grids larger than {@link #MAX_BACKTRACKING_SIZE} are checked with the
+     * {@link ClauseLearningSudokuSolver}.
      *
      * @param sudoku the 2D integer array representing the Sudoku grid to check. Each cell in the grid
      *               must be a non-negative integer, with 0 representing an unfilled cell. The grid
@@ -119,6 +181,9 @@ public class SudokuChecker {
      */
     public static boolean isSolved(int[][] sudoku) {
         int sudokuSize = sudoku.length;
+        if (sudokuSize > MAX_BACKTRACKING_SIZE) {
+            return ClauseLearningSudokuSolver.isSolved(sudoku);
+        }
         int subSudokuSize = (int) Math.sqrt(sudokuSize);
         for (int row = 0; row < sudokuSize; row++) {
             for (int col = 0; col < sudokuSize; col++) {
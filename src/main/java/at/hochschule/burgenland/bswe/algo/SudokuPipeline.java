@@ -0,0 +1,280 @@
+package at.hochschule.burgenland.bswe.algo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SudokuPipeline {
+
+    private static final Item END = new Item(null, null);
+
+    private final int queueCapacity;
+    private final int solverThreads;
+    private final SolutionStore solutionStore;
+
+    private final Stage reader = new Stage("read", 1);
+    private final Stage solver;
+    private final Stage writer = new Stage("write", 1);
+    private final AtomicInteger solved = new AtomicInteger();
+    private final AtomicInteger unsolvable = new AtomicInteger();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger peakParsed = new AtomicInteger();
+    private final AtomicInteger peakResults = new AtomicInteger();
+    private volatile BlockingQueue<Item> parsed;
+    private volatile BlockingQueue<Item> results;
+    private volatile boolean running;
+    private volatile long startTime;
+    private volatile long elapsedNanos;
+
+    /**
+     * A puzzle to solve: the CSV file it is read from and the CSV file its solution is written to.
+     *
+     * @param inputFile  the name or path of the CSV file holding the puzzle.
+     * @param outputFile the name or path of the CSV file to write the solution to.
+     */
+    public record Job(String inputFile, String outputFile) {
+    }
+
+    private record Item(Job job, int[][] sudoku) {
+    }
+
+    /**
+     * Creates a pipeline that reads, solves and writes Sudoku puzzles in separate stages.
+     *
+     * @param queueCapacity the number of puzzles each queue between two stages holds before the
+     *                      stage in front of it has to wait.
+     * @param solverThreads the number of threads solving puzzles.
+     * @param solutionStore the store to look up and keep solutions in, or null to always solve.
+     * @throws IllegalArgumentException if the queue capacity or the number of solver threads is
+     *                                  not positive.
+     */
+    public SudokuPipeline(int queueCapacity, int solverThreads, SolutionStore solutionStore) {
+        if (queueCapacity <= 0 || solverThreads <= 0) {
+            throw new IllegalArgumentException("Queue capacity and solver threads must be positive!");
+        }
+        this.queueCapacity = queueCapacity;
+        this.solverThreads = solverThreads;
+        this.solutionStore = solutionStore;
+        this.solver = new Stage("solve", solverThreads);
+    }
+
+    /**
+     * Solves all given jobs and waits until every solution is written.
+     *
+     * One thread reads and parses the input files ahead of the solvers, the solver threads solve
+     * the parsed puzzles, and one thread writes the solutions back, so reading, solving and writing
+     * overlap. The stages are connected by bounded queues: a stage that gets ahead of the next one
+     * waits until the queue between them has room again, which keeps the number of puzzles held in
+     * memory bounded. Puzzles are solved through the solution store if one was given.
+     *
+     * A job whose input cannot be read or solved, or whose output cannot be written, is counted
+     * as failed and the remaining jobs go on, including jobs whose solver throws an error such as a
+     * {@link StackOverflowError}. No output file is written for an unsolvable puzzle.
+     * While the pipeline is running, {@link #getStats()} may be called from another thread to
+     * watch the queues and stages.
+     *
+     * @param jobs the jobs to run, in the order their input files are read.
+     * @return the statistics of the finished run.
+     * @throws RuntimeException if the calling thread is interrupted while waiting for the pipeline.
+     */
+    public synchronized PipelineStats run(List<Job> jobs) {
+        reset();
+        parsed = new ArrayBlockingQueue<>(queueCapacity);
+        results = new ArrayBlockingQueue<>(queueCapacity);
+        startTime = System.nanoTime();
+        running = true;
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> read(jobs), "sudoku-reader"));
+        for (int i = 0; i < solverThreads; i++) {
+            threads.add(new Thread(this::solve, "sudoku-solver-" + i));
+        }
+        threads.add(new Thread(this::write, "sudoku-writer"));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            elapsedNanos = System.nanoTime() - startTime;
+            running = false;
+        }
+        return getStats();
+    }
+
+    /**
+     * Returns a snapshot of the current or last run: the number of puzzles in each queue, how busy
+     * each stage is, and how many puzzles were solved so far.
+     */
+    public PipelineStats getStats() {
+        long elapsed = running ? System.nanoTime() - startTime : elapsedNanos;
+        BlockingQueue<Item> parsedQueue = parsed;
+        BlockingQueue<Item> resultQueue = results;
+
+        List<PipelineStats.QueueStats> queues = List.of(
+                new PipelineStats.QueueStats("parsed", parsedQueue == null ? 0 : parsedQueue.size(), peakParsed.get(), queueCapacity),
+                new PipelineStats.QueueStats("solved", resultQueue == null ? 0 : resultQueue.size(), peakResults.get(), queueCapacity));
+        List<PipelineStats.StageStats> stages = List.of(reader.stats(elapsed), solver.stats(elapsed), writer.stats(elapsed));
+        List<String> failed;
+        synchronized (failures) {
+            failed = List.copyOf(failures);
+        }
+        return new PipelineStats(elapsed, solved.get(), unsolvable.get(), failed.size(), failed, queues, stages);
+    }
+
+    private void read(List<Job> jobs) {
+        try {
+            for (Job job : jobs) {
+                long start = System.nanoTime();
+                int[][] sudoku = null;
+                try {
+                    sudoku = CsvHandler.readCsv(job.inputFile());
+                } catch (RuntimeException | Error e) {
+                    fail(job, e);
+                }
+                reader.done(start);
+                if (sudoku != null) {
+                    put(parsed, new Item(job, sudoku), peakParsed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            end(parsed, solverThreads);
+        }
+    }
+
+    private void solve() {
+        try {
+            while (true) {
+                Item item = parsed.take();
+                if (item == END) {
+                    break;
+                }
+                long start = System.nanoTime();
+                Item result = null;
+                try {
+                    int[][] solution = solutionStore != null
+                            ? solutionStore.solve(item.sudoku())
+                            : SudokuChecker.checkSudoku(item.sudoku());
+                    result = new Item(item.job(), solution);
+                } catch (RuntimeException | Error e) {
+                    fail(item.job(), e);
+                }
+                solver.done(start);
+                if (result != null) {
+                    put(results, result, peakResults);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            end(results, 1);
+        }
+    }
+
+    private void write() {
+        try {
+            int running = solverThreads;
+            while (running > 0) {
+                Item item = results.take();
+                if (item == END) {
+                    running--;
+                    continue;
+                }
+                long start = System.nanoTime();
+                if (item.sudoku() == null) {
+                    unsolvable.incrementAndGet();
+                } else {
+                    try {
+                        CsvHandler.writeCsv(item.sudoku(), item.job().outputFile());
+                        solved.incrementAndGet();
+                    } catch (RuntimeException | Error e) {
+                        fail(item.job(), e);
+                    }
+                }
+                writer.done(start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void put(BlockingQueue<Item> queue, Item item, AtomicInteger peak) throws InterruptedException {
+        queue.put(item);
+        peak.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    /**
+     * Tells the threads of the next stage that no more items follow, one marker per thread. This
+     * is also done when a stage stops early, so the next stage never waits for items that are not
+     * coming. If the thread is interrupted, the whole pipeline is being stopped and no marker is
+     * needed any more.
+     */
+    private static void end(BlockingQueue<Item> queue, int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                queue.put(END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fail(Job job, Throwable e) {
+        failures.add(job.inputFile() + ": " + e);
+    }
+
+    private void reset() {
+        reader.reset();
+        solver.reset();
+        writer.reset();
+        solved.set(0);
+        unsolvable.set(0);
+        failures.clear();
+        peakParsed.set(0);
+        peakResults.set(0);
+        elapsedNanos = 0;
+    }
+
+    private static final class Stage {
+        private final String name;
+        private final int threads;
+        private final AtomicInteger items = new AtomicInteger();
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        private Stage(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        private void done(long start) {
+            busyNanos.addAndGet(System.nanoTime() - start);
+            items.incrementAndGet();
+        }
+
+        private void reset() {
+            items.set(0);
+            busyNanos.set(0);
+        }
+
+        private PipelineStats.StageStats stats(long elapsed) {
+            long busy = busyNanos.get();
+            double utilization = elapsed == 0 ? 0 : Math.min(1.0, (double) busy / ((double) elapsed * threads));
+            return new PipelineStats.StageStats(name, threads, items.get(), busy, utilization);
+        }
+    }
+}
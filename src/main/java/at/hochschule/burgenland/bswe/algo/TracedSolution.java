@@ -0,0 +1,47 @@
+package at.hochschule.burgenland.bswe.algo;
+
+public class TracedSolution {
+
+    private final int[][] solution;
+    private final SolveTrace trace;
+
+    public TracedSolution(int[][] solution, SolveTrace trace) {
+        this.solution = solution;
+        this.trace = trace;
+    }
+
+    public int[][] getSolution() {
+        return solution;
+    }
+
+    public SolveTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Returns the next step for a partially filled board of the traced puzzle. The filled cells
+     * are checked against the solution first, as a hint that builds on a wrong value would mislead
+     * the user: the first cell holding a value other than the solution's is returned as a
+     * {@link SolveTrace.Reason#WRONG_VALUE} step with the correct value. Otherwise, the step is
+     * taken from the recorded trace, so the puzzle is not solved again.
+     *
+     * @param board the 2D integer array representing the current state of the puzzle. Empty cells
+     *              are represented by 0.
+     * @return the next step to take, or null if the board is filled with the solution.
+     * @throws IllegalArgumentException if the board does not have the size of the solution.
+     */
+    public SolveTrace.Step nextHint(int[][] board) {
+        if (board == null || board.length != solution.length) {
+            throw new IllegalArgumentException("Sudoku does not match the trace size!");
+        }
+        for (int row = 0; row < solution.length; row++) {
+            for (int col = 0; col < solution.length; col++) {
+                int value = board[row][col];
+                if (value != 0 && value != solution[row][col]) {
+                    return new SolveTrace.Step(row, col, solution[row][col], SolveTrace.Reason.WRONG_VALUE);
+                }
+            }
+        }
+        return trace.nextHint(board);
+    }
+}
@@ -2,15 +2,64 @@ package at.hochschule.burgenland.bswe.algo;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class UiMenu {
 
+    /**
+     * System property that sets the directory of the solution store. Without it, the store is
+     * kept in the user's home directory, outside of the project, so it never ends up in a build.
+     */
+    private static final String SOLUTION_STORE_PROPERTY = "sudoku.solutionStore";
+    private static final String SOLUTION_STORE_DIRECTORY = ".sudoku-checker/solution-store";
+
     private Scanner scanner;
     private int[][] currentSudoku;
+    private TracedSolution currentTrace;
+    private SolutionStore solutionStore;
+    private BoardRenderer boardRenderer;
 
     public UiMenu() {
         this.scanner = new Scanner(System.in);
+        this.solutionStore = openSolutionStore();
+        this.boardRenderer = new BoardRenderer();
+        this.boardRenderer.setHighlightConflicts(true);
+        // Without a console, e.g. when the output is redirected, escape sequences would end up as text
+        this.boardRenderer.setAnsi(System.console() != null);
+    }
+
+    /**
+     * Opens the solution store that keeps the solutions of previously solved boards.
+     *
+     * The store lives in the directory given by the `sudoku.solutionStore` system property,
+     * or in `.sudoku-checker/solution-store` in the user's home directory if it is not set.
+     * If another process already writes to the store, it is opened for reading only, so
+     * stored solutions are still used. If the store cannot be opened at all, boards are
+     * solved without it.
+     *
+     * @return the opened solution store, or null if it is not available.
+     */
+    private SolutionStore openSolutionStore() {
+        String configured = System.getProperty(SOLUTION_STORE_PROPERTY);
+        Path directory = configured != null && !configured.isBlank()
+                ? Path.of(configured)
+                : Path.of(System.getProperty("user.home")).resolve(SOLUTION_STORE_DIRECTORY);
+        try {
+            return SolutionStore.open(directory);
+        } catch (RuntimeException e) {
+            try {
+                return SolutionStore.openReadOnly(directory);
+            } catch (RuntimeException readOnlyException) {
+                System.out.println("Solution store is not available: " + e.getMessage());
+                return null;
+            }
+        }
     }
 
     /**
@@ -20,7 +69,8 @@ public class UiMenu {
      * to perform various operations on Sudoku boards. Users can select
      * options to load a Sudoku board from a CSV file, manually enter a Sudoku
      * board, solve the current board, display it, validate its solution,
-     * save a solved Sudoku to a CSV file, or exit the application.
+     * save a solved Sudoku to a CSV file, show a hint for the next step,
+     * solve all CSV files of a directory, or exit the application.
      *
      * The menu runs in a loop until the user chooses to exit.
      *
@@ -39,7 +89,9 @@ public class UiMenu {
                      4. Display the current Sudoku board
                      5. Validate a Sudoku board
                      6. Save Sudoku solution to CSV
-                     7. Exit
+                     7. Show a hint for the current Sudoku board
+                     8. Solve all CSV files in a directory
+                     9. Exit
                      
                      """);
 
@@ -67,6 +119,15 @@ public class UiMenu {
                          saveSudokuSolutionToCSV();
                          break;
                      case 7:
+                         showHint();
+                         break;
+                     case 8:
+                         solveCsvDirectory();
+                         break;
+                     case 9:
+                         if (solutionStore != null) {
+                             solutionStore.close();
+                         }
                          exit = true;
                          break;
                      default:
@@ -103,6 +164,7 @@ public class UiMenu {
             }
 
             currentSudoku = CsvHandler.readCsv(filename);
+            currentTrace = null;
             System.out.println("Sudoku Board loaded successfully!");
             displaySudokuBoard();
         } catch (Exception e) {
@@ -116,7 +178,9 @@ public class UiMenu {
      *
      * This method checks whether the `currentSudoku` field contains a non-null and non-empty Sudoku board.
      * If the board is null or empty, it prints an error message to the console stating "Sudoku Board is null or empty!".
-     * Otherwise, it uses the `Utils.printSudoku` method to print the Sudoku board in a formatted structure.
+     * Otherwise, it uses a `BoardRenderer` to print the Sudoku board in a formatted structure with a single
+     * write. Cells whose value clashes with another cell of the same row, column or subgrid are shown in red
+     * when running in a console, and marked with '*' otherwise.
      *
      * The method relies on the `currentSudoku` field, which is expected to be a 2D integer array representing
      * the Sudoku board. The board should conform to the standard Sudoku rules: a square grid where each nested
@@ -127,7 +191,7 @@ public class UiMenu {
             System.out.println("Sudoku Board is null or empty!");
             return;
         }
-        Utils.printSudoku(currentSudoku);
+        boardRenderer.print(currentSudoku, System.out);
     }
 
     /**
@@ -168,6 +232,7 @@ public class UiMenu {
             }
 
             currentSudoku = Utils.createEmptySudokuBoard(sudokuSize);
+            currentTrace = null;
 
             System.out.println("Enter the Sudoku board row by row (e.g., 1 2 3 4 5 6 7 8 9).");
             System.out.println("Attention: use 0 for empty cells, and separate numbers with spaces.");
@@ -201,10 +266,16 @@ public class UiMenu {
      * the method prints an error message and terminates execution.
      *
      * When the board is valid, the solving process starts, and the time taken
-     * to solve the board is measured. The solving process utilizes the
-     * `SudokuChecker.checkSudoku` method to compute the solution. If the board
+     * to solve the board is measured. If the board was solved before, its solution
+     * is taken from the solution store; otherwise the `SudokuChecker.checkSudoku`
+     * method computes the solution and it is added to the store. If the board
      * is determined to be unsolvable, a corresponding message is displayed.
      *
+     * While a board larger than `SudokuChecker.MAX_BACKTRACKING_SIZE` is being solved,
+     * the placements found so far are drawn every half second with `BoardRenderer.update`,
+     * so the progress of a long search can be followed. In a console, only the cells that
+     * changed since the previous frame are redrawn.
+     *
      * If the Sudoku board is successfully solved, it updates the `currentSudoku`
      * field and displays the solved Sudoku board using the `displaySudokuBoard` method.
      * A success message, including the time taken to solve, is also printed to the console.
@@ -223,8 +294,14 @@ public class UiMenu {
             return;
         }
         System.out.println("Solving Sudoku...");
+        boardRenderer.reset();
+        Consumer<int[][]> progress = board -> boardRenderer.update(board, System.out);
         long startTime = System.currentTimeMillis();
-        currentSudoku = SudokuChecker.checkSudoku(currentSudoku);
+        if (solutionStore != null) {
+            currentSudoku = solutionStore.solve(currentSudoku, progress);
+        } else {
+            currentSudoku = SudokuChecker.checkSudoku(currentSudoku, progress);
+        }
         long endTime = System.currentTimeMillis();
         if (currentSudoku == null) {
             System.out.println("Sudoku is not solvable!");
@@ -235,6 +312,92 @@ public class UiMenu {
     }
 
 
+    /**
+     * Shows a hint for the next step on the current Sudoku board.
+     *
+     * The first time a hint is requested for a board, a copy of it is solved with
+     * `SudokuChecker.checkSudokuWithTrace`, which records every placement and the reason
+     * it was made. The trace is kept until another board is loaded or entered, so every
+     * further hint is looked up from the trace instead of solving the board again. If a
+     * filled cell holds a value that is not part of the solution, that mistake is shown
+     * instead of the next step.
+     */
+    private void showHint() {
+        if (currentSudoku == null || currentSudoku.length == 0) {
+            System.out.println("Sudoku Board is null or empty!");
+            return;
+        }
+        if (currentTrace == null) {
+            int[][] puzzle = new int[currentSudoku.length][];
+            for (int i = 0; i < currentSudoku.length; i++) {
+                puzzle[i] = currentSudoku[i].clone();
+            }
+            currentTrace = SudokuChecker.checkSudokuWithTrace(puzzle);
+            if (currentTrace == null) {
+                System.out.println("Sudoku is not solvable!");
+                return;
+            }
+        }
+        SolveTrace.Step hint = currentTrace.nextHint(currentSudoku);
+        if (hint == null) {
+            System.out.println("No hint left, the Sudoku board is already filled!");
+        } else if (hint.reason() == SolveTrace.Reason.WRONG_VALUE) {
+            System.out.println("Mistake: row " + (hint.row() + 1) + ", column " + (hint.col() + 1)
+                    + " holds " + currentSudoku[hint.row()][hint.col()] + ", but " + hint.value() + " belongs there");
+        } else {
+            System.out.println("Hint: place " + hint.value() + " in row " + (hint.row() + 1)
+                    + ", column " + (hint.col() + 1) + " (" + hint.reason() + ")");
+        }
+    }
+
+
+    /**
+     * Solves every CSV file of a directory entered by the user and writes the solutions
+     * to an output directory, using a file with the same name for each solution.
+     *
+     * The files are solved with a `SudokuPipeline`, so reading, solving and writing
+     * overlap, and solutions are looked up in and added to the solution store. When
+     * all files are done, the number of solved, unsolvable and failed files is shown
+     * together with the utilization of each stage and the fill level of each queue.
+     */
+    private void solveCsvDirectory() {
+        System.out.print("Enter input directory (default: src/main/resources): ");
+        String input = scanner.nextLine();
+        if (input.trim().isEmpty()) {
+            input = "src/main/resources";
+        }
+        System.out.print("Enter output directory (default: target/solved): ");
+        String output = scanner.nextLine();
+        if (output.trim().isEmpty()) {
+            output = "target/solved";
+        }
+
+        List<SudokuPipeline.Job> jobs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Path.of(input))) {
+            Path outputDirectory = Files.createDirectories(Path.of(output));
+            for (Path file : files.filter(path -> path.toString().endsWith(".csv")).sorted().toList()) {
+                jobs.add(new SudokuPipeline.Job(file.toString(), outputDirectory.resolve(file.getFileName()).toString()));
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading directory: " + e.getMessage());
+            return;
+        }
+        if (jobs.isEmpty()) {
+            System.out.println("No CSV files found in " + input);
+            return;
+        }
+
+        System.out.println("Solving " + jobs.size() + " Sudoku file(s)...");
+        int solverThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+        PipelineStats stats = new SudokuPipeline(16, solverThreads, solutionStore).run(jobs);
+        System.out.println(stats);
+        for (String failure : stats.failures()) {
+            System.out.println("Failed: " + failure);
+        }
+        System.out.println("Bottleneck: " + stats.bottleneck().name() + " stage");
+    }
+
+
     private void validateSudokuBoard() {
         if (currentSudoku == null || currentSudoku.length == 0) {
             System.out.println("Sudoku Board is null or empty!");
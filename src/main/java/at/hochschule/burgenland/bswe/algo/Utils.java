@@ -2,10 +2,15 @@ package at.hochschule.burgenland.bswe.algo;
 
 public class Utils {
     
+    private static final BoardRenderer RENDERER = new BoardRenderer();
+
     /**
      * Prints the given Sudoku board to the console in a formatted manner.
      * Each cell in the Sudoku grid is displayed, with sub-grids separated visually
      * by horizontal and vertical lines. Empty cells are represented by a dot ('.').
+     * All cells are padded to the width of the largest value, so multi-digit values of
+     * large grids stay aligned. The whole board is built up by a shared {@link BoardRenderer}
+     * and printed with a single call.
      *
      * @param sudoku a 2D integer array representing the Sudoku board.
      *               Each element should be a non-negative integer, where 0
@@ -18,42 +23,9 @@ public class Utils {
             return;
         }
 
-        int sudokuSize = sudoku.length;
-        int subSudokuSize = (int) Math.sqrt(sudokuSize);
-
-        for (int i = 0; i < sudokuSize; i++) {
-            if (i % subSudokuSize == 0 && i != 0) {
-                printHorizontalLine(sudokuSize, subSudokuSize);
-            }
-
-            for (int j = 0; j < sudokuSize; j++) {
-                if (j % subSudokuSize == 0 && j != 0) {
-                    System.out.print("| ");
-                }
-                if (sudoku[i][j] == 0) {
-                    System.out.print(". ");
-                } else {
-                    System.out.print(sudoku[i][j] + " ");
-                }
-            }
-            System.out.println();
-        }
-    }
-
-    /**
-     * Prints a horizontal line to separate sections of the Sudoku grid. The length of the line
-     * depends on the size of the Sudoku grid and the size of its sub-grids.
-     *
-     * @param sudokuSize the total size of the Sudoku grid. This represents the number of rows
-     *                   or columns in the grid (e.g., 9 for a 9x9 Sudoku).
-     * @param subSudokuSize the size of individual sub-grids within the Sudoku grid. This is the
-     *                      square root of the sudokuSize (e.g., 3 for a 9x9 Sudoku).
-     */
-    private static void printHorizontalLine(int sudokuSize, int subSudokuSize) {
-        for (int i = 0; i < sudokuSize + subSudokuSize; i++) {
-            System.out.print("--");
+        synchronized (RENDERER) {
+            RENDERER.print(sudoku, System.out);
         }
-        System.out.println();
     }
 
     /**
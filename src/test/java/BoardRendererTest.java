@@ -0,0 +1,82 @@
+import at.hochschule.burgenland.bswe.algo.BoardRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardRendererTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private int[][] createBoard() {
+        return new int[][]{
+                {1, 0, 0, 0},
+                {0, 0, 3, 0},
+                {0, 4, 0, 0},
+                {0, 0, 0, 2}
+        };
+    }
+
+    @Test
+    void testRenderMatchesConsoleFormat() {
+        String expected = "1 . | . . " + NL
+                + ". . | 3 . " + NL
+                + "------------" + NL
+                + ". 4 | . . " + NL
+                + ". . | . 2 " + NL;
+        assertEquals(expected, new BoardRenderer().render(createBoard()));
+    }
+
+    @Test
+    void testRenderPadsMultiDigitValues() {
+        int[][] board = new int[16][16];
+        board[0][0] = 16;
+        board[0][1] = 7;
+        String firstLine = new BoardRenderer().render(board).split(NL)[0];
+        assertTrue(firstLine.startsWith("16  7  .  . | "), firstLine);
+    }
+
+    @Test
+    void testRenderMarksConflicts() {
+        int[][] board = createBoard();
+        board[0][3] = 1; // same value twice in the first row
+        BoardRenderer renderer = new BoardRenderer();
+        renderer.setHighlightConflicts(true);
+        String firstLine = renderer.render(board).split(NL)[0];
+        assertEquals("1*. | . 1*", firstLine);
+    }
+
+    @Test
+    void testRenderListsCandidates() {
+        BoardRenderer renderer = new BoardRenderer();
+        renderer.setShowCandidates(true);
+        String rendered = renderer.render(createBoard());
+        assertTrue(rendered.contains("Candidates:" + NL), rendered);
+        assertTrue(rendered.contains("row 1, column 2: 2 3" + NL), rendered);
+        assertTrue(rendered.contains("row 4, column 1: 3" + NL), rendered);
+        assertFalse(rendered.contains("row 1, column 1:"), rendered);
+    }
+
+    @Test
+    void testAnsiUpdateRedrawsOnlyChangedCells() {
+        BoardRenderer renderer = new BoardRenderer();
+        renderer.setAnsi(true);
+        int[][] board = createBoard();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes);
+
+        renderer.update(board, out);
+        assertTrue(bytes.toString().startsWith("\u001B[H\u001B[2J1 . | . . "));
+
+        bytes.reset();
+        board[3][0] = 4;
+        renderer.update(board, out);
+        assertEquals("\u001B[5;1H4 \u001B[6;1H", bytes.toString());
+
+        bytes.reset();
+        renderer.update(board, out);
+        assertEquals("\u001B[6;1H", bytes.toString());
+    }
+}
@@ -0,0 +1,200 @@
+import at.hochschule.burgenland.bswe.algo.SolutionStore;
+import at.hochschule.burgenland.bswe.algo.SudokuChecker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolutionStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private int[][] createPuzzle() {
+        return new int[][]{
+                {5, 3, 0, 0, 7, 0, 0, 0, 0},
+                {6, 0, 0, 1, 9, 5, 0, 0, 0},
+                {0, 9, 8, 0, 0, 0, 0, 6, 0},
+                {8, 0, 0, 0, 6, 0, 0, 0, 3},
+                {4, 0, 0, 8, 0, 3, 0, 0, 1},
+                {7, 0, 0, 0, 2, 0, 0, 0, 6},
+                {0, 6, 0, 0, 0, 0, 2, 8, 0},
+                {0, 0, 0, 4, 1, 9, 0, 0, 5},
+                {0, 0, 0, 0, 8, 0, 0, 7, 9}
+        };
+    }
+
+    private Path storeFile(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> matches = files.filter(file -> file.getFileName().toString().endsWith(suffix)).toList();
+            assertEquals(1, matches.size(), "Store should keep exactly one " + suffix + " file");
+            return matches.get(0);
+        }
+    }
+
+    @Test
+    void testSolveStoresSolutionAcrossRestarts() {
+        int[][] expected = SudokuChecker.checkSudoku(createPuzzle());
+
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertNull(store.get(createPuzzle()));
+            int[][] solved = store.solve(createPuzzle());
+            assertNotNull(solved);
+            assertArrayEquals(expected, solved);
+        }
+
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertEquals(1, store.size());
+            assertArrayEquals(expected, store.get(createPuzzle()));
+            assertArrayEquals(expected, store.solve(createPuzzle()));
+        }
+    }
+
+    @Test
+    void testUnsolvablePuzzleIsRemembered() {
+        int[][] conflicting = {
+                {1, 1, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}
+        };
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertNull(store.solve(conflicting));
+        }
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertEquals(1, store.size());
+            assertNull(store.get(conflicting));
+            assertNull(store.solve(conflicting));
+        }
+    }
+
+    @Test
+    void testSecondWriterIsRejected() {
+        SolutionStore store = SolutionStore.open(directory);
+        try {
+            assertThrows(RuntimeException.class, () -> SolutionStore.open(directory));
+        } finally {
+            store.close();
+        }
+        SolutionStore.open(directory).close();
+    }
+
+    @Test
+    void testReaderSeesEntriesOfWriter() {
+        int[][] solution = SudokuChecker.checkSudoku(createPuzzle());
+        try (SolutionStore writer = SolutionStore.open(directory);
+             SolutionStore reader = SolutionStore.openReadOnly(directory)) {
+            assertNull(reader.get(createPuzzle()));
+            writer.put(createPuzzle(), solution);
+            assertArrayEquals(solution, reader.get(createPuzzle()));
+            assertThrows(IllegalStateException.class, () -> reader.put(createPuzzle(), solution));
+        }
+    }
+
+    @Test
+    void testIndexGrowsAndIsReadAfterRestart() throws IOException {
+        int[][] solution = TestGrids.patternSolution(16);
+        try (SolutionStore writer = SolutionStore.open(directory);
+             SolutionStore reader = SolutionStore.openReadOnly(directory)) {
+            for (int cell = 0; cell < 1500; cell++) {
+                int[][] puzzle = new int[16][16];
+                puzzle[cell / 16 % 16][cell % 16] = cell / 256 + 1;
+                writer.put(puzzle, solution);
+            }
+            assertEquals(1500, writer.size());
+            storeFile(".idx");
+            int[][] last = new int[16][16];
+            last[1499 / 16 % 16][1499 % 16] = 1499 / 256 + 1;
+            assertArrayEquals(solution, reader.get(last));
+        }
+        try (SolutionStore store = SolutionStore.openReadOnly(directory)) {
+            assertEquals(1500, store.size());
+            for (int cell = 0; cell < 1500; cell++) {
+                int[][] puzzle = new int[16][16];
+                puzzle[cell / 16 % 16][cell % 16] = cell / 256 + 1;
+                assertNotNull(store.get(puzzle), "Puzzle " + cell + " should be stored");
+            }
+        }
+    }
+
+    @Test
+    void testCompactionKeepsLatestSolution() throws IOException {
+        int[][] first = TestGrids.patternSolution(9);
+        int[][] latest = SudokuChecker.checkSudoku(createPuzzle());
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            for (int i = 0; i < 10; i++) {
+                store.put(createPuzzle(), first);
+            }
+            store.put(createPuzzle(), latest);
+            Path data = storeFile(".dat");
+            long before = Files.size(data);
+            store.compact();
+            Path compacted = storeFile(".dat");
+            assertNotEquals(data, compacted, "Compaction should write a new data file instead of replacing the open one");
+            assertTrue(Files.size(compacted) < before, "Compaction should drop replaced records");
+            assertEquals(1, store.size());
+            assertArrayEquals(latest, store.get(createPuzzle()));
+        }
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertArrayEquals(latest, store.get(createPuzzle()));
+        }
+    }
+
+    @Test
+    void testDamagedTailIsDiscarded() throws IOException {
+        int[][] solution = SudokuChecker.checkSudoku(createPuzzle());
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            store.put(createPuzzle(), solution);
+        }
+        Files.write(storeFile(".dat"), new byte[]{0, 0, 0, 99, 1, 2, 3}, StandardOpenOption.APPEND);
+        Files.delete(storeFile(".idx"));
+
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertEquals(1, store.size());
+            assertArrayEquals(solution, store.get(createPuzzle()));
+            store.put(TestGrids.patternSolution(4), TestGrids.patternSolution(4));
+        }
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            assertEquals(2, store.size());
+            assertArrayEquals(TestGrids.patternSolution(4), store.get(TestGrids.patternSolution(4)));
+        }
+    }
+
+    @Test
+    void testDamagedRecordBeforeTailIsRejected() throws IOException {
+        try (SolutionStore store = SolutionStore.open(directory)) {
+            store.put(createPuzzle(), SudokuChecker.checkSudoku(createPuzzle()));
+            store.put(TestGrids.patternSolution(4), TestGrids.patternSolution(4));
+        }
+        Path data = storeFile(".dat");
+        byte[] bytes = Files.readAllBytes(data);
+        bytes[16 + 30] ^= 1; // a cell of the first record, which is followed by the second one
+        Files.write(data, bytes);
+        Files.delete(storeFile(".idx"));
+
+        assertThrows(RuntimeException.class, () -> SolutionStore.open(directory));
+        assertEquals(bytes.length, Files.size(data), "Records behind the damaged one should be kept");
+    }
+
+    @Test
+    void testReaderFollowsRepeatedCompactions() {
+        try (SolutionStore writer = SolutionStore.open(directory);
+             SolutionStore reader = SolutionStore.openReadOnly(directory)) {
+            for (int i = 0; i < 5; i++) {
+                int[][] puzzle = TestGrids.patternSolution(4);
+                puzzle[0][0] = 0;
+                puzzle[1][i % 4] = 0;
+                writer.put(puzzle, TestGrids.patternSolution(4));
+                writer.compact();
+                assertArrayEquals(TestGrids.patternSolution(4), reader.get(puzzle));
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
+import at.hochschule.burgenland.bswe.algo.SolveTrace;
 import at.hochschule.burgenland.bswe.algo.SudokuChecker;
+import at.hochschule.burgenland.bswe.algo.TracedSolution;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SudokuCheckerTest {
@@ -108,4 +112,248 @@ public class SudokuCheckerTest {
         grid[0][0] = 2;
         assertFalse(SudokuChecker.isSolved(grid));
     }
+
+    private int[][] createLargePuzzle(int size) {
+        int[][] grid = TestGrids.patternSolution(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                // Remove roughly every third cell from a valid pattern solution
+                if ((row * 7 + col * 3) % 10 < 3) {
+                    grid[row][col] = 0;
+                }
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    void testCheckSudokuSolves36x36() {
+        int[][] solved = SudokuChecker.checkSudoku(createLargePuzzle(36));
+        assertNotNull(solved, "Solver should find a solution for a 36x36 Sudoku");
+        assertTrue(SudokuChecker.isSolved(solved), "Returned grid should be a valid solved 36x36 Sudoku");
+    }
+
+    @Test
+    void testCheckSudokuSolves64x64() {
+        int[][] solved = SudokuChecker.checkSudoku(createLargePuzzle(64));
+        assertNotNull(solved, "Solver should find a solution for a 64x64 Sudoku");
+        assertTrue(SudokuChecker.isSolved(solved), "Returned grid should be a valid solved 64x64 Sudoku");
+    }
+
+    private int[][] createSparsePuzzle(int size, int percentKept) {
+        int[][] grid = createLargePuzzle(size);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                // Keep only a few givens, spread over the whole grid
+                if ((row * 31 + col * 17) % 100 >= percentKept) {
+                    grid[row][col] = 0;
+                }
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    void testCheckSudokuSolvesEmpty49x49() {
+        int[][] solved = SudokuChecker.checkSudoku(new int[49][49]);
+        assertNotNull(solved, "Solver should fill an empty 49x49 Sudoku");
+        assertTrue(SudokuChecker.isSolved(solved));
+    }
+
+    @Test
+    void testCheckSudokuSolvesEmpty64x64() {
+        int[][] solved = SudokuChecker.checkSudoku(new int[64][64]);
+        assertNotNull(solved, "Solver should fill an empty 64x64 Sudoku");
+        assertTrue(SudokuChecker.isSolved(solved));
+    }
+
+    @Test
+    void testCheckSudokuSolvesSparse49x49() {
+        int[][] solved = SudokuChecker.checkSudoku(createSparsePuzzle(49, 10));
+        assertNotNull(solved, "Solver should find a solution for a sparse 49x49 Sudoku");
+        assertTrue(SudokuChecker.isSolved(solved));
+    }
+
+    @Test
+    void testCheckSudokuSolvesSparse64x64() {
+        int[][] solved = SudokuChecker.checkSudoku(createSparsePuzzle(64, 1));
+        assertNotNull(solved, "Solver should find a solution for a sparse 64x64 Sudoku");
+        assertTrue(SudokuChecker.isSolved(solved));
+    }
+
+    @Test
+    void testProgressShowsOnlyConsistentPlacements() {
+        int[][] puzzle = createSparsePuzzle(49, 10);
+        int[][] givens = createSparsePuzzle(49, 10);
+        int[][] solved = SudokuChecker.checkSudoku(puzzle, board -> {
+            for (int row = 0; row < 49; row++) {
+                boolean[] seen = new boolean[50];
+                for (int col = 0; col < 49; col++) {
+                    int value = board[row][col];
+                    assertTrue(givens[row][col] == 0 || givens[row][col] == value, "Givens should stay in place");
+                    assertFalse(value != 0 && seen[value], "A value should not be placed twice in a row");
+                    seen[value] = true;
+                }
+            }
+        });
+        assertTrue(SudokuChecker.isSolved(solved));
+    }
+
+    @Test
+    void testCheckSudokuSolves49x49OnSmallStack() throws InterruptedException {
+        int[][][] solved = new int[1][][];
+        Thread thread = new Thread(null, () -> solved[0] = SudokuChecker.checkSudoku(new int[49][49]), "small-stack", 256 * 1024);
+        thread.start();
+        thread.join();
+        assertNotNull(solved[0], "Solver should not depend on the size of the thread's stack");
+        assertTrue(SudokuChecker.isSolved(solved[0]));
+    }
+
+    private int[][] createRandomPuzzle(int size, long seed) {
+        int[][] grid = TestGrids.patternSolution(size);
+        Random random = new Random(seed);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                // Remove about half of the cells at random, which is the hardest density
+                if (random.nextBoolean()) {
+                    grid[row][col] = 0;
+                }
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    void testCheckSudokuGivesUpOnHalfEmpty49x49() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> SudokuChecker.checkSudoku(createRandomPuzzle(49, 1)));
+        assertTrue(exception.getMessage().contains("conflicts"), "Solver should report that it gave up");
+    }
+
+    @Test
+    void testCheckSudokuStopsWhenInterrupted() throws InterruptedException {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                SudokuChecker.checkSudoku(createRandomPuzzle(49, 2));
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        });
+        thread.start();
+        Thread.sleep(500);
+        thread.interrupt();
+        thread.join(5000);
+        assertFalse(thread.isAlive(), "Solver should stop soon after the thread is interrupted");
+        assertTrue(failure[0] instanceof IllegalStateException, "Solver should report the interruption");
+    }
+
+    @Test
+    void testCheckSudokuReturnsNullOnConflictingGivens49x49() {
+        int[][] grid = new int[49][49];
+        grid[0][0] = 5;
+        grid[0][48] = 5; // same digit twice in the first row
+        assertNull(SudokuChecker.checkSudoku(grid));
+    }
+
+    @Test
+    void testIsSolvedFalseWithDuplicateOn36x36() {
+        int[][] solved = SudokuChecker.checkSudoku(createLargePuzzle(36));
+        assertNotNull(solved);
+        solved[0][0] = solved[0][1];
+        assertFalse(SudokuChecker.isSolved(solved));
+    }
+
+    @Test
+    void testCheckSudokuWithTraceReplaysToSolution() {
+        int[][] puzzle = createLargePuzzle(36);
+        int[][] board = new int[36][];
+        int empty = 0;
+        for (int row = 0; row < 36; row++) {
+            board[row] = puzzle[row].clone();
+            for (int col = 0; col < 36; col++) {
+                if (puzzle[row][col] == 0) {
+                    empty++;
+                }
+            }
+        }
+
+        TracedSolution traced = SudokuChecker.checkSudokuWithTrace(puzzle);
+        assertNotNull(traced, "Solver should find a solution for a 36x36 Sudoku");
+        assertEquals(empty, traced.getTrace().getLength(), "Every empty cell should be traced exactly once");
+
+        SolveTrace.Step hint;
+        while ((hint = traced.nextHint(board)) != null) {
+            assertEquals(0, board[hint.row()][hint.col()]);
+            assertEquals(traced.getSolution()[hint.row()][hint.col()], hint.value());
+            board[hint.row()][hint.col()] = hint.value();
+        }
+        assertArrayEquals(traced.getSolution(), board);
+    }
+
+    @Test
+    void testNextHintSkipsCellsAlreadyFilled() {
+        int[][] puzzle = {
+                {1, 0, 0, 0},
+                {0, 0, 3, 0},
+                {0, 4, 0, 0},
+                {0, 0, 0, 2}
+        };
+        int[][] board = new int[4][];
+        for (int row = 0; row < 4; row++) {
+            board[row] = puzzle[row].clone();
+        }
+
+        TracedSolution traced = SudokuChecker.checkSudokuWithTrace(puzzle);
+        assertNotNull(traced);
+        SolveTrace.Step first = traced.getTrace().getStep(0);
+        assertEquals(first, traced.nextHint(board));
+
+        board[first.row()][first.col()] = first.value();
+        assertEquals(traced.getTrace().getStep(1), traced.nextHint(board));
+        assertNull(traced.nextHint(traced.getSolution()));
+    }
+
+    @Test
+    void testNextHintReportsWrongValueFirst() {
+        int[][] puzzle = {
+                {1, 0, 0, 0},
+                {0, 0, 3, 0},
+                {0, 4, 0, 0},
+                {0, 0, 0, 2}
+        };
+        int[][] board = new int[4][];
+        for (int row = 0; row < 4; row++) {
+            board[row] = puzzle[row].clone();
+        }
+
+        TracedSolution traced = SudokuChecker.checkSudokuWithTrace(puzzle);
+        assertNotNull(traced);
+        int correct = traced.getSolution()[3][2];
+        board[3][2] = correct == 1 ? 3 : 1;
+
+        SolveTrace.Step hint = traced.nextHint(board);
+        assertEquals(new SolveTrace.Step(3, 2, correct, SolveTrace.Reason.WRONG_VALUE), hint);
+        board[3][2] = correct;
+        assertNotEquals(SolveTrace.Reason.WRONG_VALUE, traced.nextHint(board).reason());
+    }
+
+    @Test
+    void testTraceLabelsSinglesAfterEliminations() {
+        int[][] puzzle = {
+                {1, 2, 3, 4},
+                {3, 4, 1, 2},
+                {2, 1, 4, 3},
+                {4, 3, 2, 0}
+        };
+        TracedSolution traced = SudokuChecker.checkSudokuWithTrace(puzzle);
+        assertNotNull(traced);
+        assertEquals(1, traced.getTrace().getLength());
+        assertNotEquals(SolveTrace.Reason.GUESS, traced.getTrace().getStep(0).reason());
+    }
+
+    @Test
+    void testCheckSudokuWithTraceThrowsOnNonSquareSize() {
+        assertThrows(IllegalArgumentException.class, () -> SudokuChecker.checkSudokuWithTrace(new int[3][3]));
+    }
 }
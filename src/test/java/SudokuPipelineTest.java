@@ -0,0 +1,105 @@
+import at.hochschule.burgenland.bswe.algo.CsvHandler;
+import at.hochschule.burgenland.bswe.algo.PipelineStats;
+import at.hochschule.burgenland.bswe.algo.SolutionStore;
+import at.hochschule.burgenland.bswe.algo.SudokuPipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SudokuPipelineTest {
+
+    @TempDir
+    Path directory;
+
+    private String resourcePath(String name) {
+        try {
+            URL url = getClass().getClassLoader().getResource(name);
+            assertNotNull(url, "Resource not found: " + name);
+            return Paths.get(url.toURI()).toString();
+        } catch (URISyntaxException e) {
+            fail("Failed to resolve resource path for: " + name + " due to " + e.getMessage());
+            return null; // unreachable
+        }
+    }
+
+    private List<SudokuPipeline.Job> createJobs(String input, int count) {
+        List<SudokuPipeline.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            jobs.add(new SudokuPipeline.Job(input, directory.resolve("output" + i + ".csv").toString()));
+        }
+        return jobs;
+    }
+
+    @Test
+    void testPipelineSolvesAllJobs() {
+        int[][] expected = CsvHandler.readCsv(resourcePath("output2.csv"));
+        List<SudokuPipeline.Job> jobs = createJobs(resourcePath("input2.csv"), 20);
+
+        PipelineStats stats = new SudokuPipeline(2, 2, null).run(jobs);
+
+        assertEquals(20, stats.solved());
+        assertEquals(0, stats.unsolvable());
+        assertEquals(0, stats.failed());
+        for (SudokuPipeline.Job job : jobs) {
+            int[][] actual = CsvHandler.readCsv(job.outputFile());
+            for (int i = 0; i < expected.length; i++) {
+                assertArrayEquals(expected[i], actual[i], "Row " + i + " differs in " + job.outputFile());
+            }
+        }
+        for (PipelineStats.StageStats stage : stats.stages()) {
+            assertEquals(20, stage.items(), "Stage " + stage.name() + " should process every job");
+            assertTrue(stage.utilization() >= 0 && stage.utilization() <= 1);
+        }
+        for (PipelineStats.QueueStats queue : stats.queues()) {
+            assertEquals(0, queue.depth(), "Queue " + queue.name() + " should be drained");
+            assertTrue(queue.peakDepth() <= 2, "Queue " + queue.name() + " should stay within its capacity");
+        }
+    }
+
+    @Test
+    void testPipelineCountsFailedAndUnsolvableJobs() {
+        String unsolvable = directory.resolve("unsolvable.csv").toString();
+        CsvHandler.writeCsv(new int[][]{
+                {1, 1, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 0}
+        }, unsolvable);
+        String missing = directory.resolve("missing.csv").toString();
+        List<SudokuPipeline.Job> jobs = List.of(
+                new SudokuPipeline.Job(missing, directory.resolve("out-missing.csv").toString()),
+                new SudokuPipeline.Job(unsolvable, directory.resolve("out-unsolvable.csv").toString()),
+                new SudokuPipeline.Job(resourcePath("input3.csv"), directory.resolve("out-solved.csv").toString()));
+
+        PipelineStats stats = new SudokuPipeline(1, 1, null).run(jobs);
+
+        assertEquals(1, stats.solved());
+        assertEquals(1, stats.unsolvable());
+        assertEquals(1, stats.failed());
+        assertTrue(stats.failures().get(0).startsWith(missing));
+        assertFalse(Files.exists(directory.resolve("out-unsolvable.csv")));
+        assertTrue(Files.exists(directory.resolve("out-solved.csv")));
+    }
+
+    @Test
+    void testPipelineUsesSolutionStore() {
+        String input = resourcePath("input2.csv");
+        try (SolutionStore store = SolutionStore.open(directory.resolve("store"))) {
+            new SudokuPipeline(4, 3, store).run(createJobs(input, 10));
+            assertEquals(1, store.size());
+            assertNotNull(store.get(CsvHandler.readCsv(input)));
+
+            PipelineStats stats = new SudokuPipeline(4, 3, store).run(createJobs(input, 10));
+            assertEquals(10, stats.solved());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Grids shared by the tests.
+ */
+final class TestGrids {
+
+    private TestGrids() {
+    }
+
+    /**
+     * Creates a valid solved grid of the given size by shifting the first row by one subgrid per
+     * row and by one cell per band of subgrids.
+     */
+    static int[][] patternSolution(int size) {
+        int sub = (int) Math.sqrt(size);
+        int[][] grid = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                grid[row][col] = (row * sub + row / sub + col) % size + 1;
+            }
+        }
+        return grid;
+    }
+}